@@ -0,0 +1,194 @@
+package neonsort;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Memory-access profile of one recorded run: the locality that explains
+ * why two sorts with similar compare counts run at very different speeds.
+ * Every op is expanded into the array accesses it stands for (a compare
+ * reads two slots, a swap reads and writes two, a write writes one, a
+ * bucket read reads one), and each access is counted per slot, measured
+ * for reuse distance and run through a simulated cache.
+ *
+ * Reuse distance is the number of distinct cache lines touched since the
+ * last access to the same line. It comes from a Fenwick tree over access
+ * times in which only each line's latest access is set, so one lookup is
+ * O(log L); the time axis is renumbered whenever it fills up, which keeps
+ * the tree at twice the number of lines. An access at distance d hits in a
+ * fully associative LRU cache of more than d lines, so the histogram gives
+ * the hit rate at any capacity; the {@link #WAYS}-way set-associative cache
+ * of the configured size adds the conflict misses real hardware has.
+ *
+ * Ops name slots, not buffers, so the aux buffer of a merge counts against
+ * the slots it stands in for, as if the sort worked in one array.
+ */
+final class AccessProfile {
+
+    static final int ELEMENT_BYTES = Integer.BYTES;
+    static final int WAYS = 8;
+    /** Reuse histogram: [0] first touches, [k + 1] distances d with 2^k <= d + 1 < 2^(k+1). */
+    static final int BUCKETS = 34;
+
+    final int lineBytes, cacheBytes;
+    final int[] reads, writes; // per slot
+    final long[] reuse = new long[BUCKETS];
+    long accesses, cacheHits, lruHits;
+
+    // Reuse distance
+    private final int[] lastTime; // per line, 0 = not touched yet
+    private final int[] tree;
+    private int now, touched; // lines touched so far: every set time is at most now
+
+    // Set-associative LRU cache: each set's tags, most recently used first
+    private final int sets, ways;
+    private final int[] tags;
+    private final int capacityLines, lineShift;
+
+    private AccessProfile(int n, int lineBytes, int cacheBytes) {
+        if(Integer.bitCount(lineBytes) != 1 || lineBytes < ELEMENT_BYTES)
+            throw new IllegalArgumentException("Line size must be a power of two of at least " + ELEMENT_BYTES + " bytes");
+        this.lineBytes = lineBytes;
+        this.cacheBytes = cacheBytes;
+        this.reads = new int[n];
+        this.writes = new int[n];
+        this.lineShift = Integer.numberOfTrailingZeros(lineBytes / ELEMENT_BYTES);
+        int lines = (n >> lineShift) + 1;
+        this.lastTime = new int[lines];
+        this.tree = new int[Math.max(1024, 2 * lines) + 1];
+
+        this.capacityLines = Math.max(1, cacheBytes / lineBytes);
+        this.ways = Math.min(WAYS, capacityLines);
+        this.sets = capacityLines / ways;
+        this.tags = new int[sets * ways];
+        Arrays.fill(tags, -1);
+    }
+
+    /** Profiles a run over {@code n} slots against a cache of {@code cacheBytes} in lines of {@code lineBytes}. */
+    static AccessProfile of(OpSource ops, int n, int lineBytes, int cacheBytes) {
+        AccessProfile p = new AccessProfile(n, lineBytes, cacheBytes);
+        for(long k = 0, size = ops.size(); k < size; k++) {
+            long op = ops.get(k);
+            int a = SortOps.a(op);
+            switch(SortOps.type(op)) {
+                case SortOps.COMPARE -> {
+                    p.read(a);
+                    p.read(SortOps.b(op));
+                }
+                case SortOps.SWAP -> {
+                    int b = SortOps.b(op);
+                    if(a == b) continue;
+                    p.read(a);
+                    p.read(b);
+                    p.write(a);
+                    p.write(b);
+                }
+                case SortOps.WRITE -> p.write(a);
+                case SortOps.BUCKET -> p.read(a);
+            }
+        }
+        return p;
+    }
+
+    double hitRate() { return accesses == 0 ? 0 : (double) cacheHits / accesses; }
+    double lruHitRate() { return accesses == 0 ? 0 : (double) lruHits / accesses; }
+    int capacityLines() { return capacityLines; }
+
+    /** Histogram bucket of a reuse distance. */
+    static int bucket(long distance) {
+        return 64 - Long.numberOfLeadingZeros(distance + 1);
+    }
+
+    String summary() {
+        return String.format(Locale.ROOT, "%s / %d B: %.1f%% hits (%.1f%% LRU)  |  %,d accesses",
+                bytes(cacheBytes), lineBytes, hitRate() * 100, lruHitRate() * 100, accesses);
+    }
+
+    static String bytes(long b) {
+        if(b >= 1 << 20 && b % (1 << 20) == 0) return (b >> 20) + " MB";
+        if(b >= 1 << 10 && b % (1 << 10) == 0) return (b >> 10) + " KB";
+        return b + " B";
+    }
+
+    // --- ACCESSES ---
+
+    private void read(int i) {
+        reads[i]++;
+        access(i >> lineShift);
+    }
+
+    private void write(int i) {
+        writes[i]++;
+        access(i >> lineShift);
+    }
+
+    private void access(int line) {
+        accesses++;
+
+        int prev = lastTime[line];
+        if(prev != 0 && prev == now) {
+            // Same line as the access before: distance 0, and it is already most recent everywhere
+            reuse[1]++;
+            lruHits++;
+            cacheHits++;
+            return;
+        }
+        int t = ++now;
+        if(t == tree.length) {
+            renumber();
+            prev = lastTime[line];
+            t = ++now;
+        }
+        if(prev == 0) {
+            reuse[0]++;
+            touched++;
+        } else {
+            int distance = touched - prefix(prev); // set times in (prev, t)
+            reuse[bucket(distance)]++;
+            if(distance < capacityLines) lruHits++;
+            add(prev, -1);
+        }
+        add(t, 1);
+        lastTime[line] = t;
+
+        if(cached(line)) cacheHits++;
+    }
+
+    /** Looks the line up in its set and moves it to the front, evicting the least recently used on a miss. */
+    private boolean cached(int line) {
+        int base = (line % sets) * ways;
+        int j = 0;
+        while(j < ways && tags[base + j] != line) j++;
+        boolean hit = j < ways;
+        if(!hit) j = ways - 1;
+        System.arraycopy(tags, base, tags, base + 1, j);
+        tags[base] = line;
+        return hit;
+    }
+
+    // --- FENWICK TREE OVER ACCESS TIMES ---
+
+    private int prefix(int i) {
+        int s = 0;
+        for(; i > 0; i -= i & -i) s += tree[i];
+        return s;
+    }
+
+    private void add(int i, int delta) {
+        for(; i < tree.length; i += i & -i) tree[i] += delta;
+    }
+
+    /** Gives the touched lines the times 1..m in the order they were last used and rebuilds the tree. */
+    private void renumber() {
+        int m = 0;
+        long[] order = new long[lastTime.length];
+        for(int line = 0; line < lastTime.length; line++) {
+            if(lastTime[line] != 0) order[m++] = (long) lastTime[line] << 32 | line;
+        }
+        Arrays.sort(order, 0, m);
+        for(int k = 0; k < m; k++) lastTime[(int) order[k]] = k + 1;
+        // Node i covers times (i - lowbit(i), i], of which 1..m are set
+        for(int i = 1; i < tree.length; i++) tree[i] = Math.max(0, Math.min(i, m) - (i - (i & -i)));
+        now = m;
+    }
+}
@@ -0,0 +1,157 @@
+package neonsort;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+
+/**
+ * Bar renderer for arrays far larger than the node view can handle.
+ *
+ * Bars are written straight into the int[] behind a {@link BufferedImage},
+ * one pixel column at a time. Each column remembers the value and colour it
+ * was last drawn with, so a frame only re-rasterizes the columns whose
+ * element actually changed - normally a handful, whatever the array size.
+ *
+ * When there are more elements than columns and the source has a
+ * {@link BucketTree}, each column shows every element it covers instead
+ * of sampling one, like a waveform: solid up to the smallest value, a dim
+ * band up to the largest, a bright tick at the mean, in the colour of the
+ * dominant highlight. The tree answers each column in O(log n), so a
+ * frame costs O(width log n), plus the leaves written since the last
+ * frame, however many elements there are.
+ */
+final class BarRaster {
+
+    /** Read-only view of the array being drawn. */
+    interface Source {
+        int size();
+        int value(int index);
+        int rgb(int index);
+
+        /** Level-of-detail tree over the source, or null to sample one element per column. */
+        default BucketTree buckets() { return null; }
+
+        /** Colour of a highlight state drawn by the given worker, for bucketed columns. */
+        default int rgb(byte state, int worker) { return 0; }
+    }
+
+    private final int background;
+
+    private BufferedImage image;
+    private int[] pixels;
+    private int width, height;
+
+    // What each column currently shows
+    private int[] drawnValue = new int[0];
+    private int[] drawnRgb = new int[0];
+    private int[] drawnLow = new int[0];
+    private int[] drawnHigh = new int[0];
+    private final BucketTree.Bucket bucket = new BucketTree.Bucket();
+    private int drawnSize = -1;
+    private int drawnMax = -1;
+
+    BarRaster(int background) {
+        this.background = background;
+    }
+
+    /** Renders the current state of {@code src} and returns the backing image. */
+    BufferedImage render(Source src, int maxValue, int w, int h) {
+        w = Math.max(1, w);
+        h = Math.max(1, h);
+        if(image == null || w != width || h != height) allocate(w, h);
+
+        int n = src.size();
+        boolean all = n != drawnSize || maxValue != drawnMax;
+        drawnSize = n;
+        drawnMax = maxValue;
+
+        if(n == 0) {
+            if(all) Arrays.fill(pixels, background);
+            return image;
+        }
+
+        BucketTree tree = src.buckets();
+        if(tree != null && n > width && tree.size() == n) {
+            renderBuckets(src, tree, n, maxValue, all);
+            return image;
+        }
+
+        for(int c = 0; c < width; c++) {
+            int i = (int) ((long) c * n / width);
+            int v = src.value(i);
+            int rgb = src.rgb(i);
+            if(all || v != drawnValue[c] || rgb != drawnRgb[c]) {
+                drawColumn(c, barHeight(v, maxValue), rgb);
+                drawnValue[c] = v;
+                drawnRgb[c] = rgb;
+            }
+        }
+        return image;
+    }
+
+    /** One bucket of {@code n / width} elements per column; drawnValue holds the mean. */
+    private void renderBuckets(Source src, BucketTree tree, int n, int maxValue, boolean all) {
+        BucketTree.Bucket b = bucket;
+        tree.flush();
+        for(int c = 0; c < width; c++) {
+            int from = (int) ((long) c * n / width);
+            int to = (int) ((long) (c + 1) * n / width);
+            tree.query(from, to, b);
+            if(b.count == 0) continue;
+            int mean = b.mean();
+            int rgb = src.rgb(b.state(), b.worker());
+            if(all || b.min != drawnLow[c] || b.max != drawnHigh[c] || mean != drawnValue[c] || rgb != drawnRgb[c]) {
+                drawBucket(c, barHeight(b.min, maxValue), barHeight(mean, maxValue), barHeight(b.max, maxValue), rgb);
+                drawnLow[c] = b.min;
+                drawnHigh[c] = b.max;
+                drawnValue[c] = mean;
+                drawnRgb[c] = rgb;
+            }
+        }
+    }
+
+    /** Forces every column to be redrawn on the next frame. */
+    void invalidate() {
+        drawnSize = -1;
+    }
+
+    private void allocate(int w, int h) {
+        width = w;
+        height = h;
+        image = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+        pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        drawnValue = new int[w];
+        drawnRgb = new int[w];
+        drawnLow = new int[w];
+        drawnHigh = new int[w];
+        drawnSize = -1;
+    }
+
+    private int barHeight(int v, int maxValue) {
+        if(v <= 0 || maxValue <= 0) return 0;
+        return (int) Math.min(height, (long) v * height / maxValue);
+    }
+
+    private void drawColumn(int c, int h, int rgb) {
+        int top = height - h;
+        int p = c;
+        for(int y = 0; y < top; y++, p += width) pixels[p] = background;
+        for(int y = top; y < height; y++, p += width) pixels[p] = rgb;
+    }
+
+    /** Solid up to {@code hMin}, dim up to {@code hMax}, and a one-pixel tick at {@code hMean}. */
+    private void drawBucket(int c, int hMin, int hMean, int hMax, int rgb) {
+        int dim = blend(rgb, background);
+        int top = height - hMax, band = height - hMin, tick = Math.min(height - 1, height - hMean);
+        int p = c;
+        for(int y = 0; y < top; y++, p += width) pixels[p] = background;
+        for(int y = top; y < band; y++, p += width) pixels[p] = dim;
+        for(int y = band; y < height; y++, p += width) pixels[p] = rgb;
+        if(hMax > 0 && tick >= top) pixels[tick * width + c] = rgb;
+    }
+
+    /** Halfway between a colour and the background. */
+    static int blend(int rgb, int bg) {
+        return ((rgb & 0xFEFEFE) >>> 1) + ((bg & 0xFEFEFE) >>> 1);
+    }
+}
@@ -0,0 +1,222 @@
+package neonsort;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Segment tree of min, max, sum and dominant highlight over the slots of a
+ * {@link NodeStore}, for drawing arrays with more elements than pixel
+ * columns. {@link BarRaster} asks it for one range per column, so a frame
+ * never touches the elements themselves.
+ *
+ * Leaves cover {@link #LEAF} consecutive slots to keep the tree small
+ * (about 2.5 bytes per element). A slot write only marks its leaf dirty;
+ * the reader {@link #flush}es once per frame, rescanning each dirty leaf
+ * and walking up only as far as the aggregates actually change. A turbo
+ * frame that hits the same leaves thousands of times pays for them once.
+ *
+ * The dominant highlight of a range is the highest-priority state in it:
+ * comparing, then pivot, then unsorted, then sorted. A single compared
+ * element lights its whole column, and a column only turns sorted once
+ * every element in it is. The worker tag of that element travels along.
+ *
+ * Threading: the sorter thread only marks leaves, in an atomic bitset,
+ * after writing the slot. The tree itself belongs to the EDT, which
+ * flushes and queries it; a slot written after its leaf was flushed is
+ * marked again and picked up next frame.
+ */
+final class BucketTree {
+
+    static final int LEAF = 16;
+    /** Stores below this size never need the tree: the raster view has a column per element. */
+    static final int MIN_SIZE = 256;
+
+    private final NodeStore nodes;
+    private int n, base;
+    private int[] min = new int[0], max = new int[0], key = new int[0];
+    private long[] sum = new long[0];
+
+    private AtomicLongArray dirty = new AtomicLongArray(0); // one bit per leaf
+    private volatile boolean pending; // some bit may be set
+    private volatile boolean stale;   // every leaf is dirty
+
+    /** Aggregate of one range, filled in by {@link #query}. */
+    static final class Bucket {
+        int count, min, max;
+        long sum;
+        int key;
+
+        int mean() { return count == 0 ? 0 : (int) (sum / count); }
+        byte state() { return (byte) ((key >>> 8) & 0xFF); }
+        int worker() { return (key & 0xFF) - 1; }
+
+        void clear() {
+            count = 0;
+            min = Integer.MAX_VALUE;
+            max = Integer.MIN_VALUE;
+            sum = 0;
+            key = -1;
+        }
+    }
+
+    BucketTree(NodeStore nodes) {
+        this.nodes = nodes;
+    }
+
+    int size() { return n; }
+
+    /** Slot {@code i} changed value, state or worker. O(1); the tree catches up on the next flush. */
+    void mark(int i) {
+        int leaf = i / LEAF;
+        int w = leaf >>> 6;
+        long bit = 1L << leaf;
+        AtomicLongArray d = dirty;
+        if(w >= d.length() || (d.get(w) & bit) != 0) return;
+        d.getAndAccumulate(w, bit, (a, b) -> a | b);
+        if(!pending) pending = true;
+    }
+
+    /** Every slot changed (fill), so the next flush rebuilds. */
+    void markAll() {
+        stale = true;
+    }
+
+    /** Brings the tree up to date with the slots marked since the last flush. */
+    synchronized void flush() {
+        if(stale) {
+            stale = false;
+            rebuild(n);
+            return;
+        }
+        if(!pending) return;
+        pending = false;
+        AtomicLongArray d = dirty;
+        for(int w = 0; w < d.length(); w++) {
+            if(d.get(w) == 0) continue;
+            long bits = d.getAndSet(w, 0);
+            while(bits != 0) {
+                update((w << 6) + Long.numberOfTrailingZeros(bits));
+                bits &= bits - 1;
+            }
+        }
+    }
+
+    /** Rebuilds the whole tree over the store's first {@code size} slots, in O(n). */
+    synchronized void rebuild(int size) {
+        n = size;
+        int leaves = Math.max(1, (size + LEAF - 1) / LEAF);
+        if(dirty.length() != (leaves + 63) >>> 6) dirty = new AtomicLongArray((leaves + 63) >>> 6);
+        for(int w = 0; w < dirty.length(); w++) dirty.set(w, 0);
+        int b = Integer.highestOneBit(leaves);
+        if(b < leaves) b <<= 1;
+        if(b != base) {
+            base = b;
+            min = new int[2 * b];
+            max = new int[2 * b];
+            key = new int[2 * b];
+            sum = new long[2 * b];
+        }
+        Arrays.fill(min, Integer.MAX_VALUE);
+        Arrays.fill(max, Integer.MIN_VALUE);
+        Arrays.fill(key, -1);
+        Arrays.fill(sum, 0);
+        for(int leaf = 0; leaf < leaves; leaf++) computeLeaf(leaf);
+        for(int t = base - 1; t >= 1; t--) pull(t);
+    }
+
+    private void update(int leaf) {
+        if(leaf * LEAF >= n) return;
+        if(!computeLeaf(leaf)) return;
+        for(int t = (base + leaf) >>> 1; t >= 1; t >>>= 1) {
+            if(!pull(t)) return;
+        }
+    }
+
+    /** Aggregates slots {@code from} (inclusive) to {@code to} (exclusive) into {@code out}, as of the last flush. */
+    void query(int from, int to, Bucket out) {
+        out.clear();
+        to = Math.min(to, n);
+        if(from >= to) return;
+        int lf = from / LEAF, ll = (to - 1) / LEAF;
+        if(lf == ll) {
+            scan(from, to, out);
+            return;
+        }
+        // Partial leaves at either end are scanned, the full ones in between come from the tree
+        int firstFull = lf, lastFull = ll;
+        if(from % LEAF != 0) {
+            scan(from, (lf + 1) * LEAF, out);
+            firstFull++;
+        }
+        if(to % LEAF != 0) {
+            scan(ll * LEAF, to, out);
+            lastFull--;
+        }
+        if(firstFull > lastFull) return;
+        out.count += (lastFull - firstFull + 1) * LEAF;
+        for(int l = base + firstFull, r = base + lastFull + 1; l < r; l >>>= 1, r >>>= 1) {
+            if((l & 1) != 0) merge(l++, out);
+            if((r & 1) != 0) merge(--r, out);
+        }
+    }
+
+    /** Highlight key of one slot: priority, then state and worker for the caller to unpack. */
+    static int key(byte state, int worker) {
+        int priority = switch(state) {
+            case SortOps.COMPARING -> 3;
+            case SortOps.PIVOT -> 2;
+            case SortOps.SORTED -> 0;
+            default -> 1;
+        };
+        return priority << 16 | (state & 0xFF) << 8 | ((worker + 1) & 0xFF);
+    }
+
+    /** Recomputes one leaf; false if it came out the same. */
+    private boolean computeLeaf(int leaf) {
+        int t = base + leaf;
+        int from = leaf * LEAF, to = Math.min(n, from + LEAF);
+        int lo = Integer.MAX_VALUE, hi = Integer.MIN_VALUE, k = -1;
+        long s = 0;
+        for(int i = from; i < to; i++) {
+            int v = nodes.value(i);
+            if(v < lo) lo = v;
+            if(v > hi) hi = v;
+            s += v;
+            k = Math.max(k, key(nodes.state(i), nodes.worker(i)));
+        }
+        return set(t, lo, hi, s, k);
+    }
+
+    /** Recomputes an inner node from its children; false if it came out the same. */
+    private boolean pull(int t) {
+        int l = 2 * t, r = l + 1;
+        return set(t, Math.min(min[l], min[r]), Math.max(max[l], max[r]), sum[l] + sum[r], Math.max(key[l], key[r]));
+    }
+
+    private boolean set(int t, int lo, int hi, long s, int k) {
+        if(min[t] == lo && max[t] == hi && sum[t] == s && key[t] == k) return false;
+        min[t] = lo;
+        max[t] = hi;
+        sum[t] = s;
+        key[t] = k;
+        return true;
+    }
+
+    private void merge(int t, Bucket out) {
+        out.min = Math.min(out.min, min[t]);
+        out.max = Math.max(out.max, max[t]);
+        out.sum += sum[t];
+        out.key = Math.max(out.key, key[t]);
+    }
+
+    private void scan(int from, int to, Bucket out) {
+        for(int i = from; i < to; i++) {
+            int v = nodes.value(i);
+            out.min = Math.min(out.min, v);
+            out.max = Math.max(out.max, v);
+            out.sum += v;
+            out.key = Math.max(out.key, key(nodes.state(i), nodes.worker(i)));
+        }
+        out.count += to - from;
+    }
+}
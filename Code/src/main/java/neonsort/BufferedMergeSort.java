@@ -0,0 +1,171 @@
+package neonsort;
+
+/**
+ * Merge sorts that never copy a range before merging it. One auxiliary
+ * buffer is allocated up front and the two buffers take turns as source
+ * and destination, level by level; ranges of {@link #CUTOFF} or fewer are
+ * finished by insertion sort, and two halves that are already in order
+ * are passed through without a merge.
+ *
+ * Ping-pong is top-down and nests ENTER/LEAVE exactly like
+ * {@link SortEngine#mergeSortRec}, so it animates with the same level
+ * layout. Natural is bottom-up and iterative: it splits the input into
+ * the ascending runs it already has (strictly descending ones are
+ * reversed), stretches short runs to the cutoff with insertion sort, and
+ * merges neighbouring runs pass by pass; each merge drops a level and
+ * comes back up.
+ *
+ * Ops refer to slot indices, whichever buffer they touch, so the animated
+ * array always shows the latest values written to each slot. Writes go to
+ * the destination buffer and are reported directly, not through
+ * {@link SortEngine#write}, which would write to the input array.
+ */
+final class BufferedMergeSort {
+
+    static final int CUTOFF = 8;
+
+    private final int[] a, aux;
+    private final OpSink out;
+    private final SortEngine onA, onAux;
+
+    BufferedMergeSort(int[] a, OpSink out) {
+        this.a = a;
+        this.aux = a.clone(); // both buffers start out holding the input
+        this.out = out;
+        this.onA = new SortEngine(a, out);
+        this.onAux = new SortEngine(aux, out);
+    }
+
+    private SortEngine on(int[] buffer) {
+        return buffer == a ? onA : onAux;
+    }
+
+    // --- PING-PONG (top-down) ---
+
+    void pingPong() {
+        if(a.length < 2) return;
+        sort(aux, a, 0, a.length - 1);
+    }
+
+    /** Sorts src[lo..hi] into dst[lo..hi]; both hold the same values on entry. */
+    private void sort(int[] src, int[] dst, int lo, int hi) {
+        if(hi - lo + 1 <= CUTOFF) {
+            on(dst).insertionSort(lo, hi);
+            on(dst).mark(lo, SortOps.SORTED);
+            return;
+        }
+        out.accept(SortOps.enter(lo, hi));
+        int mid = (lo + hi) >>> 1;
+        // The halves are sorted into src, so they can be merged into dst
+        sort(dst, src, lo, mid);
+        sort(dst, src, mid + 1, hi);
+        mergeOrPass(src, dst, lo, mid, hi);
+        out.accept(SortOps.leave(lo, hi));
+    }
+
+    // --- NATURAL (bottom-up) ---
+
+    void natural() {
+        int n = a.length;
+        if(n < 2) return;
+
+        // Run starts, with n as the sentinel end of the last run
+        int[] starts = new int[(n + CUTOFF - 1) / CUTOFF + 1];
+        int count = 0;
+        for(int lo = 0; lo < n; ) {
+            int hi = runEnd(lo);
+            if(hi - lo < CUTOFF) {
+                hi = Math.min(n, lo + CUTOFF);
+                onA.insertionSort(lo, hi - 1);
+                onA.mark(lo, SortOps.SORTED);
+            }
+            starts[count++] = lo;
+            lo = hi;
+        }
+        starts[count] = n;
+        if(count == 1) {
+            for(int i = 0; i < n; i++) onA.mark(i, SortOps.SORTED);
+            return;
+        }
+
+        int[] src = a, dst = aux;
+        while(count > 1) {
+            int merged = 0;
+            for(int r = 0; r < count; r += 2) {
+                int lo = starts[r];
+                if(r + 1 == count) {
+                    // Odd run out: carried over to the destination unchanged
+                    System.arraycopy(src, lo, dst, lo, n - lo);
+                } else {
+                    int mid = starts[r + 1], hi = starts[r + 2] - 1;
+                    out.accept(SortOps.enter(lo, hi));
+                    mergeOrPass(src, dst, lo, mid - 1, hi);
+                    out.accept(SortOps.leave(lo, hi));
+                }
+                starts[merged++] = lo;
+            }
+            starts[merged] = n;
+            count = merged;
+            int[] t = src; src = dst; dst = t;
+        }
+        if(src != a) System.arraycopy(src, 0, a, 0, n);
+    }
+
+    /** End (exclusive) of the run starting at {@code lo}; a strictly descending run is reversed in place. */
+    private int runEnd(int lo) {
+        int n = a.length;
+        if(lo + 1 == n) return n;
+        int i = lo + 1;
+        if(onA.compare(i, lo) < 0) {
+            while(i + 1 < n && onA.compare(i + 1, i) < 0) i++;
+            for(int l = lo, r = i; l < r; l++, r--) onA.swap(l, r);
+        } else {
+            while(i + 1 < n && onA.compare(i + 1, i) >= 0) i++;
+        }
+        return i + 1;
+    }
+
+    // --- MERGING ---
+
+    /** Merges src[lo..mid] and src[mid+1..hi] into dst, or just carries them over if they are already in order. */
+    private void mergeOrPass(int[] src, int[] dst, int lo, int mid, int hi) {
+        out.accept(SortOps.compare(mid, mid + 1));
+        if(src[mid] <= src[mid + 1]) {
+            System.arraycopy(src, lo, dst, lo, hi - lo + 1); // the slots already show these values
+            return;
+        }
+        int i = lo, j = mid + 1, k = lo;
+        while(i <= mid && j <= hi) {
+            out.accept(SortOps.pointer(SortOps.PTR_A, SortOps.LBL_L, i));
+            out.accept(SortOps.pointer(SortOps.PTR_B, SortOps.LBL_R, j));
+            out.accept(SortOps.compare(i, j));
+            if(src[j] < src[i]) write(dst, k++, src[j++]);
+            else write(dst, k++, src[i++]);
+        }
+        while(i <= mid) write(dst, k++, src[i++]);
+        while(j <= hi) write(dst, k++, src[j++]);
+        out.accept(SortOps.pointer(SortOps.PTR_A, SortOps.LBL_NONE, -1));
+        out.accept(SortOps.pointer(SortOps.PTR_B, SortOps.LBL_NONE, -1));
+    }
+
+    private void write(int[] dst, int k, int v) {
+        dst[k] = v;
+        out.accept(SortOps.write(k, v));
+    }
+
+    // --- PROVIDERS ---
+
+    public static final class PingPong implements SortAlgorithm {
+        @Override public String name() { return "Ping-Pong Merge Sort"; }
+        @Override public String complexity() { return "Time Complexity: Best: O(n) | Avg: O(n log n) | Worst: O(n log n) | One buffer, no copies"; }
+        @Override public void sort(int[] a, OpSink out) { new BufferedMergeSort(a, out).pingPong(); }
+        @Override public boolean usesLevels() { return true; }
+    }
+
+    public static final class Natural implements SortAlgorithm {
+        @Override public String name() { return "Natural Merge Sort"; }
+        @Override public String complexity() { return "Time Complexity: Best: O(n) | Avg: O(n log r), r = runs | Worst: O(n log n) | Bottom-up"; }
+        @Override public void sort(int[] a, OpSink out) { new BufferedMergeSort(a, out).natural(); }
+        @Override public boolean usesLevels() { return true; }
+    }
+}
@@ -0,0 +1,289 @@
+package neonsort;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+import static neonsort.Palette.*;
+
+/**
+ * Draws nodes, bars and pointers. Kept apart from the Swing canvas so the
+ * same code can paint into an off-screen image without a display.
+ *
+ * Painting honours the clip: nodes and bars outside it are skipped. To
+ * keep the clip small, {@link #dirtyRegion} takes the slots the store has
+ * logged as changed since the previous call (moved, rewritten, recoloured),
+ * compares each with what it saw then, and returns the union of the old
+ * and new bounds of whatever changed, plus the pointers. Only when the
+ * whole store changed does it compare every slot.
+ */
+final class CanvasPainter {
+
+    static final int RASTER_THRESHOLD = 400; // BARS view switches to BarRaster above this
+    static final int BAR_AREA_HEIGHT = 400;
+    private static final int RASTER_MARGIN = 60;
+    static final int RASTER_BOTTOM = 600;
+
+    private final RenderCache rc = new RenderCache();
+    private final BarRaster raster = new BarRaster(BG_COLOR.getRGB());
+
+    private NodeStore nodes;
+    private final Rectangle clip = new Rectangle();
+
+    // What the last dirtyRegion() call saw, slot by slot (EDT only)
+    private int[] seenX = new int[0], seenY = new int[0], seenValue = new int[0], seenRgb = new int[0];
+    private int seenCount = -1, seenWidth, seenHeight, seenMax, seenBaseline, seenBarArea;
+    private ViewMode seenMode;
+    private long seenVersion = -1;
+    private final int[] changedSlots = new int[NodeStore.CHANGE_LOG];
+    private int seenA = -1, seenB = -1, seenPivot = -1;
+    private String seenALabel = "", seenBLabel = "";
+    private int rx0, ry0, rx1, ry1; // region being collected, empty while rx0 > rx1
+    private final BarRaster.Source rasterSource = new BarRaster.Source() {
+        @Override public int size() { return nodes.size(); }
+        @Override public int value(int i) { return nodes.value(i); }
+        @Override public int rgb(int i) { return nodeRgb(nodes.state(i), nodes.worker(i)); }
+        @Override public BucketTree buckets() { return nodes.buckets(); }
+        @Override public int rgb(byte state, int worker) { return nodeRgb(state, worker); }
+    };
+
+    static boolean useRaster(ViewMode mode, int count) {
+        return mode == ViewMode.BARS && count > RASTER_THRESHOLD;
+    }
+
+    void paint(Graphics2D g2, int width, int height, NodeStore nodes, Pointers ptrs, ViewMode viewMode, int maxValue) {
+        g2.setColor(BG_COLOR);
+        g2.fillRect(0, 0, width, height);
+        paintLane(g2, width, nodes, ptrs, viewMode, maxValue, RASTER_BOTTOM, BAR_AREA_HEIGHT);
+    }
+
+    /**
+     * Paints one run over an already cleared background. Bars stand on
+     * {@code baseline} and are at most {@code barArea} tall (a value of 100
+     * fills it); the full-window view uses 600 and 400.
+     */
+    void paintLane(Graphics2D g2, int width, NodeStore nodes, Pointers ptrs, ViewMode viewMode, int maxValue,
+                   int baseline, int barArea) {
+        this.nodes = nodes;
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+
+        nodes.version(); // acquire the sorter's latest slot writes
+        int count = nodes.size();
+        if(count == 0) return;
+
+        boolean raster = useRaster(viewMode, count);
+        if(raster) {
+            int w = width - RASTER_MARGIN * 2;
+            g2.drawImage(this.raster.render(rasterSource, maxValue, w, barArea),
+                    RASTER_MARGIN, baseline - barArea, null);
+        }
+
+        if(g2.getClip() == null) clip.setBounds(Integer.MIN_VALUE / 2, Integer.MIN_VALUE / 2, Integer.MAX_VALUE, Integer.MAX_VALUE);
+        else g2.getClipBounds(clip);
+        int cx0 = clip.x, cx1 = clip.x + clip.width, cy0 = clip.y, cy1 = clip.y + clip.height;
+
+        drawPtr(g2, width, viewMode, raster, ptrs.a, ptrs.aLabel, COL_POINTER, baseline, barArea);
+        drawPtr(g2, width, viewMode, raster, ptrs.b, ptrs.bLabel, COL_POINTER, baseline, barArea);
+        drawPtr(g2, width, viewMode, raster, ptrs.pivot, "KEY", COL_PIVOT, baseline, barArea);
+        if(raster) return;
+
+        int half = Math.max(40, (viewMode == ViewMode.NODES) ? RenderCache.NODE_SIZE : Math.max(10, (width-100)/count - 5));
+        for(int i=0; i<count; i++) {
+            int x = (int) nodes.x(i), y = (int) nodes.y(i);
+            // Outside the clip; the slack covers labels wider than the node or bar
+            if(x + half < cx0 || x - half > cx1) continue;
+            if(viewMode == ViewMode.NODES && (y + half < cy0 || y - half > cy1)) continue;
+
+            int value = nodes.value(i);
+            Color color = nodeColor(nodes.state(i), nodes.worker(i));
+            if(viewMode == ViewMode.NODES) {
+                int size = RenderCache.NODE_SIZE;
+                g2.drawImage(rc.nodeSprite(color), x - size/2, y - size/2, null);
+
+                BufferedImage label = rc.nodeLabels.get(value);
+                g2.drawImage(label, x - label.getWidth()/2, y + 5 - rc.nodeLabels.ascent(), null);
+            } else {
+                int w = Math.max(10, (width-100)/count - 5);
+                int h = barHeight(value, barArea);
+
+                int arc = RenderCache.BAR_ARC;
+                g2.setColor(color);
+                if(h > arc) {
+                    g2.fillRect(x - w/2, y - h + arc, w, h - arc);
+                    g2.drawImage(rc.barCap(color, w), x - w/2, y - h, null);
+                } else {
+                    g2.fillRect(x - w/2, y - h, w, h);
+                }
+
+                BufferedImage label = rc.barLabels.get(value);
+                g2.drawImage(label, x - label.getWidth()/2, y + 15 - rc.barLabels.ascent(), null);
+            }
+        }
+    }
+
+    /**
+     * Collects the area that has to be repainted since the previous call into
+     * {@code out}: old and new bounds of every slot whose position, value or
+     * colour changed, plus old and new pointer areas. Anything that changes
+     * the whole layout (size, view, width, scale) yields the full area.
+     * Returns false when nothing changed.
+     */
+    boolean dirtyRegion(int width, int height, NodeStore nodes, Pointers ptrs, ViewMode viewMode, int maxValue,
+                        int baseline, int barArea, Rectangle out) {
+        this.nodes = nodes;
+        long version = nodes.version();
+        int count = nodes.size();
+        if(count != seenCount || width != seenWidth || height != seenHeight || viewMode != seenMode
+                || maxValue != seenMax || baseline != seenBaseline || barArea != seenBarArea) {
+            snapshot(count, width, height, ptrs, viewMode, maxValue, baseline, barArea);
+            out.setBounds(0, 0, width, height);
+            return true;
+        }
+
+        boolean raster = useRaster(viewMode, count);
+        int a = ptrs.a, b = ptrs.b, pivot = ptrs.pivot;
+        String aLabel = ptrs.aLabel, bLabel = ptrs.bLabel;
+        boolean aMoved = a != seenA || !aLabel.equals(seenALabel);
+        boolean bMoved = b != seenB || !bLabel.equals(seenBLabel);
+        boolean pivotMoved = pivot != seenPivot;
+
+        rx0 = ry0 = Integer.MAX_VALUE;
+        rx1 = ry1 = Integer.MIN_VALUE;
+        if(aMoved) addPointer(seenA, seenALabel, COL_POINTER, width, viewMode, raster, baseline, barArea);
+        if(bMoved) addPointer(seenB, seenBLabel, COL_POINTER, width, viewMode, raster, baseline, barArea);
+        if(pivotMoved) addPointer(seenPivot, "KEY", COL_PIVOT, width, viewMode, raster, baseline, barArea);
+
+        int changed = nodes.drainChanged(changedSlots);
+        if(raster) {
+            // BarRaster already redraws only the columns that changed; blitting it is cheaper than diffing slots
+            if(version != seenVersion) {
+                seenVersion = version;
+                add(RASTER_MARGIN, baseline - barArea, width - RASTER_MARGIN, baseline);
+            }
+        } else if(changed < 0) {
+            for(int i=0; i<count; i++) diffSlot(i, a, b, pivot, aLabel, bLabel, width, count, viewMode, baseline, barArea);
+        } else {
+            for(int k=0; k<changed; k++) {
+                int i = changedSlots[k];
+                if(i < count) diffSlot(i, a, b, pivot, aLabel, bLabel, width, count, viewMode, baseline, barArea);
+            }
+        }
+
+        if(aMoved) addPointer(a, aLabel, COL_POINTER, width, viewMode, raster, baseline, barArea);
+        if(bMoved) addPointer(b, bLabel, COL_POINTER, width, viewMode, raster, baseline, barArea);
+        if(pivotMoved) addPointer(pivot, "KEY", COL_PIVOT, width, viewMode, raster, baseline, barArea);
+        seenA = a; seenB = b; seenPivot = pivot;
+        seenALabel = aLabel; seenBLabel = bLabel;
+
+        if(rx0 > rx1) return false;
+        int x0 = Math.max(0, rx0), y0 = Math.max(0, ry0);
+        int x1 = Math.min(width, rx1), y1 = Math.min(height, ry1);
+        if(x0 >= x1 || y0 >= y1) return false;
+        out.setBounds(x0, y0, x1 - x0, y1 - y0);
+        return true;
+    }
+
+    /** Adds slot i's old and new bounds if it looks different from when it was last seen. */
+    private void diffSlot(int i, int a, int b, int pivot, String aLabel, String bLabel, int width, int count,
+                          ViewMode viewMode, int baseline, int barArea) {
+        int x = (int) nodes.x(i), y = (int) nodes.y(i), value = nodes.value(i);
+        int rgb = nodeRgb(nodes.state(i), nodes.worker(i));
+        if(x == seenX[i] && y == seenY[i] && value == seenValue[i] && rgb == seenRgb[i]) return;
+
+        // A pointer on a changed slot moves (or re-labels) with it
+        boolean pointed = i == a || i == b || i == pivot;
+        if(pointed) addPointers(i, a, b, pivot, aLabel, bLabel, width, viewMode, false, baseline, barArea);
+        addSlot(seenX[i], seenY[i], seenValue[i], width, count, viewMode, barArea);
+        seenX[i] = x; seenY[i] = y; seenValue[i] = value; seenRgb[i] = rgb;
+        addSlot(x, y, value, width, count, viewMode, barArea);
+        if(pointed) addPointers(i, a, b, pivot, aLabel, bLabel, width, viewMode, false, baseline, barArea);
+    }
+
+    private void snapshot(int count, int width, int height, Pointers ptrs, ViewMode viewMode, int maxValue,
+                          int baseline, int barArea) {
+        if(!useRaster(viewMode, count) && seenX.length < count) {
+            int cap = Math.max(count, seenX.length * 2);
+            seenX = new int[cap];
+            seenY = new int[cap];
+            seenValue = new int[cap];
+            seenRgb = new int[cap];
+        }
+        nodes.drainChanged(changedSlots); // everything is about to be seen afresh
+        for(int i=0; i<count && i<seenX.length; i++) {
+            seenX[i] = (int) nodes.x(i);
+            seenY[i] = (int) nodes.y(i);
+            seenValue[i] = nodes.value(i);
+            seenRgb[i] = nodeRgb(nodes.state(i), nodes.worker(i));
+        }
+        seenCount = count;
+        seenWidth = width;
+        seenHeight = height;
+        seenMode = viewMode;
+        seenMax = maxValue;
+        seenBaseline = baseline;
+        seenBarArea = barArea;
+        seenVersion = nodes.version();
+        seenA = ptrs.a; seenB = ptrs.b; seenPivot = ptrs.pivot;
+        seenALabel = ptrs.aLabel; seenBLabel = ptrs.bLabel;
+    }
+
+    private void addSlot(int x, int y, int value, int width, int count, ViewMode viewMode, int barArea) {
+        if(viewMode == ViewMode.NODES) {
+            int half = Math.max(RenderCache.NODE_SIZE / 2 + 3, rc.nodeLabels.get(value).getWidth() / 2 + 1);
+            add(x - half, y - RenderCache.NODE_SIZE / 2 - 1, x + half + 1, y + RenderCache.NODE_SIZE / 2 + 4);
+        } else {
+            int w = Math.max(10, (width-100)/count - 5);
+            int half = Math.max(w / 2 + 1, rc.barLabels.get(value).getWidth() / 2 + 1);
+            add(x - half, y - barHeight(value, barArea) - 1, x + half + 1, y + 20);
+        }
+    }
+
+    private void addPointers(int i, int a, int b, int pivot, String aLabel, String bLabel, int width,
+                             ViewMode viewMode, boolean raster, int baseline, int barArea) {
+        if(i == a) addPointer(i, aLabel, COL_POINTER, width, viewMode, raster, baseline, barArea);
+        if(i == b) addPointer(i, bLabel, COL_POINTER, width, viewMode, raster, baseline, barArea);
+        if(i == pivot) addPointer(i, "KEY", COL_PIVOT, width, viewMode, raster, baseline, barArea);
+    }
+
+    /** Same placement as drawPtr, using the slot as last seen. */
+    private void addPointer(int idx, String label, Color c, int width, ViewMode viewMode, boolean raster,
+                            int baseline, int barArea) {
+        if(idx < 0 || idx >= seenCount) return;
+        int x, yTop;
+        if(raster) {
+            x = RASTER_MARGIN + (int) ((long) idx * (width - RASTER_MARGIN * 2) / seenCount);
+            yTop = baseline - barArea - 10;
+        } else {
+            x = seenX[idx];
+            yTop = (viewMode==ViewMode.NODES) ? seenY[idx] - 35 : seenY[idx] - barHeight(seenValue[idx], barArea) - 10;
+        }
+        BufferedImage img = rc.pointer(label, c);
+        add(x - img.getWidth()/2 - 1, yTop - img.getHeight(), x + img.getWidth()/2 + 2, yTop + 2);
+    }
+
+    private void add(int x0, int y0, int x1, int y1) {
+        rx0 = Math.min(rx0, x0);
+        ry0 = Math.min(ry0, y0);
+        rx1 = Math.max(rx1, x1);
+        ry1 = Math.max(ry1, y1);
+    }
+
+    private static int barHeight(int value, int barArea) {
+        return (int) Math.min(barArea, (long) value * barArea / 100);
+    }
+
+    private void drawPtr(Graphics2D g, int width, ViewMode viewMode, boolean raster, int idx, String label, Color c,
+                         int baseline, int barArea) {
+        if(idx < 0 || idx >= nodes.size()) return;
+
+        int x = (int) nodes.x(idx);
+        int y = (int) nodes.y(idx);
+        int yTop = (viewMode==ViewMode.NODES) ? y - 35 : y - barHeight(nodes.value(idx), barArea) - 10;
+        if(raster) {
+            x = RASTER_MARGIN + (int) ((long) idx * (width - RASTER_MARGIN * 2) / nodes.size());
+            yTop = baseline - barArea - 10;
+        }
+
+        BufferedImage img = rc.pointer(label, c);
+        g.drawImage(img, x - img.getWidth()/2, yTop - img.getHeight() + 1, null);
+    }
+}
@@ -0,0 +1,284 @@
+package neonsort;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Loads an input array from a file: integers as text (separated by commas,
+ * semicolons, whitespace or newlines) or raw little-endian int32 / int64.
+ *
+ * The file is mapped read-only a window at a time, so a file of any size
+ * costs the result array and nothing else on the heap. Text is parsed
+ * straight from the mapped bytes by a small state machine that carries a
+ * half-read number across windows; no String is made per value. Lines
+ * that start with something other than a number (a CSV header, a # comment)
+ * are skipped.
+ *
+ * {@link #stream} reads a file too big for one array a chunk at a time,
+ * filling only the arrays its receiver hands back.
+ */
+final class DataLoader {
+
+    enum Format {
+        TEXT("Text (CSV or one per line)"),
+        INT32("Raw int32, little-endian"),
+        INT64("Raw int64, little-endian");
+
+        final String description;
+
+        Format(String description) {
+            this.description = description;
+        }
+
+        /** Guesses the format from the file extension: .i32/.bin, .i64, anything else is text. */
+        static Format of(Path file) {
+            String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+            if(name.endsWith(".i32") || name.endsWith(".bin")) return INT32;
+            if(name.endsWith(".i64")) return INT64;
+            return TEXT;
+        }
+    }
+
+    /** Told how far loading has got, from the loading thread. */
+    interface Progress {
+        void update(long bytesDone, long bytesTotal, long values);
+    }
+
+    /** Takes a full chunk of values and hands back the array to fill next. */
+    interface Chunks {
+        int[] accept(int[] values, int count) throws IOException;
+    }
+
+    private static final long WINDOW = 1L << 28;          // 256 MB mapped at a time
+    private static final int REPORT_BYTES = 1 << 22;      // progress every 4 MB
+    private static final int CHUNK = 1 << 16;             // text is copied out and scanned 64 KB at a time
+    private static final int MAX_VALUES = Integer.MAX_VALUE - 8;
+
+    private DataLoader() {}
+
+    static int[] load(Path file, Format format, Progress progress) throws IOException {
+        try(FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            return switch(format) {
+                case TEXT -> {
+                    TextParser parser = new TextParser(file, new int[(int) Math.min(MAX_VALUES, Math.max(16, ch.size() / 8))], null);
+                    parser.parse(ch, progress);
+                    yield parser.values();
+                }
+                case INT32 -> readInts(ch, file, progress);
+                case INT64 -> readLongs(ch, file, progress);
+            };
+        }
+    }
+
+    /**
+     * Reads the file's values into {@code first} and then into whatever
+     * arrays {@code out} hands back, passing each one on when it is full;
+     * the last, shorter chunk is passed on too. Returns the number of values.
+     */
+    static long stream(Path file, Format format, int[] first, Chunks out, Progress progress) throws IOException {
+        try(FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            if(format == Format.TEXT) {
+                TextParser parser = new TextParser(file, first, out);
+                parser.parse(ch, progress);
+                return parser.flush();
+            }
+            return streamBinary(ch, file, format == Format.INT64 ? Long.BYTES : Integer.BYTES, first, out, progress);
+        }
+    }
+
+    // --- BINARY ---
+
+    private static int[] readInts(FileChannel ch, Path file, Progress progress) throws IOException {
+        long size = ch.size();
+        int[] values = new int[count(size, Integer.BYTES, file)];
+        int done = 0;
+        for(long pos = 0; pos < size; pos += WINDOW) {
+            long len = Math.min(WINDOW, size - pos);
+            IntBuffer ints = ch.map(FileChannel.MapMode.READ_ONLY, pos, len).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+            while(ints.hasRemaining()) {
+                int n = Math.min(ints.remaining(), REPORT_BYTES / Integer.BYTES);
+                ints.get(values, done, n);
+                done += n;
+                progress.update((long) done * Integer.BYTES, size, done);
+            }
+        }
+        return values;
+    }
+
+    private static int[] readLongs(FileChannel ch, Path file, Progress progress) throws IOException {
+        long size = ch.size();
+        int[] values = new int[count(size, Long.BYTES, file)];
+        int done = 0;
+        for(long pos = 0; pos < size; pos += WINDOW) {
+            long len = Math.min(WINDOW, size - pos);
+            LongBuffer longs = ch.map(FileChannel.MapMode.READ_ONLY, pos, len).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+            int end = done + longs.remaining();
+            for(int k = 0; done < end; done++, k++) {
+                long v = longs.get(k);
+                if(v != (int) v) throw new IOException("Value " + v + " at element " + done + " does not fit in an int");
+                values[done] = (int) v;
+                if((done & (REPORT_BYTES / Long.BYTES - 1)) == 0) progress.update((long) done * Long.BYTES, size, done);
+            }
+        }
+        progress.update(size, size, done);
+        return values;
+    }
+
+    private static long streamBinary(FileChannel ch, Path file, int width, int[] values, Chunks out, Progress progress) throws IOException {
+        long size = ch.size();
+        if(size % width != 0) throw new IOException(file.getFileName() + " is not a whole number of " + width + "-byte values");
+        ByteBuffer buf = ByteBuffer.allocateDirect(CHUNK).order(ByteOrder.LITTLE_ENDIAN);
+        long total = 0;
+        int count = 0;
+        while(ch.read(buf) > 0) {
+            buf.flip();
+            while(buf.remaining() >= width) {
+                long v = width == Long.BYTES ? buf.getLong() : buf.getInt();
+                if(v != (int) v) throw new IOException("Value " + v + " at element " + (total + count) + " does not fit in an int");
+                values[count++] = (int) v;
+                if(count == values.length) {
+                    values = out.accept(values, count);
+                    total += count;
+                    count = 0;
+                }
+            }
+            buf.compact();
+            if((ch.position() & (REPORT_BYTES - 1)) == 0) progress.update(ch.position(), size, total + count);
+        }
+        if(count > 0) out.accept(values, count);
+        progress.update(size, size, total + count);
+        return total + count;
+    }
+
+    private static int count(long size, int width, Path file) throws IOException {
+        if(size % width != 0) throw new IOException(file.getFileName() + " is not a whole number of " + width + "-byte values");
+        if(size / width > MAX_VALUES) throw new IOException(file.getFileName() + " holds more values than an array can");
+        return (int) (size / width);
+    }
+
+    // --- TEXT ---
+
+    private static final class TextParser {
+        private final Path file;
+        private final Chunks out; // null: grow one array instead
+        private int[] values;
+        private int count;
+        private long passed;      // values already passed on to out
+        private final byte[] chunk = new byte[CHUNK];
+
+        // Parser state, kept across mapped windows
+        private long acc;
+        private boolean digits, sign, negative;
+        private boolean lineStart = true, skipLine;
+        private long line = 1;
+
+        /** For a whole load, {@code values} is a first guess at the size (about one value per 8 bytes). */
+        TextParser(Path file, int[] values, Chunks out) {
+            this.file = file;
+            this.values = values;
+            this.out = out;
+        }
+
+        void parse(FileChannel ch, Progress progress) throws IOException {
+            long size = ch.size();
+            for(long pos = 0; pos < size; pos += WINDOW) {
+                int len = (int) Math.min(WINDOW, size - pos);
+                MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, pos, len);
+                int start = pos == 0 && hasBom(buf, len) ? 3 : 0;
+                for(int from = start; from < len; from += CHUNK) {
+                    int n = Math.min(CHUNK, len - from);
+                    buf.get(from, chunk, 0, n);
+                    scan(n);
+                    if(((from + n) & (REPORT_BYTES - 1)) == 0 || from + n == len) progress.update(pos + from + n, size, passed + count);
+                }
+            }
+            endValue();
+        }
+
+        int[] values() {
+            return count == values.length ? values : Arrays.copyOf(values, count);
+        }
+
+        /** Passes the last chunk on; returns the number of values read. */
+        long flush() throws IOException {
+            if(count > 0) out.accept(values, count);
+            return passed + count;
+        }
+
+        private static boolean hasBom(MappedByteBuffer buf, int len) {
+            return len >= 3 && buf.get(0) == (byte) 0xEF && buf.get(1) == (byte) 0xBB && buf.get(2) == (byte) 0xBF;
+        }
+
+        private void scan(int len) throws IOException {
+            byte[] b = chunk;
+            for(int i = 0; i < len; i++) {
+                int c = b[i];
+                if(c >= '0' && c <= '9' && !skipLine) {
+                    // Digits run: kept in a local until the number ends
+                    long a = acc;
+                    do {
+                        a = a * 10 + (c - '0');
+                        if(a > 1L + Integer.MAX_VALUE) throw error("Number too large for an int");
+                    } while(++i < len && (c = b[i]) >= '0' && c <= '9');
+                    acc = a;
+                    digits = true;
+                    lineStart = false;
+                    if(i == len) return;
+                }
+                if(c >= '0' && c <= '9') {
+                    // rest of a header or comment line
+                } else if(c == ',' || c == ';' || c == ' ' || c == '\t' || c == '\r') {
+                    endValue();
+                } else if(c == '\n') {
+                    endValue();
+                    line++;
+                    lineStart = true;
+                    skipLine = false;
+                } else if(skipLine) {
+                    // rest of a header or comment line
+                } else if((c == '-' || c == '+') && !digits && !sign) {
+                    sign = true;
+                    negative = c == '-';
+                    lineStart = false;
+                } else if(lineStart) {
+                    skipLine = true;
+                } else {
+                    throw error("Unexpected '" + (char) (c & 0xFF) + "'");
+                }
+            }
+        }
+
+        private void endValue() throws IOException {
+            if(!digits) {
+                if(sign) throw error("Sign without a number");
+                return;
+            }
+            long v = negative ? -acc : acc;
+            if(v > Integer.MAX_VALUE) throw error("Number too large for an int");
+            if(count == values.length && out != null) {
+                values = out.accept(values, count);
+                passed += count;
+                count = 0;
+            } else if(count == values.length) {
+                if(count == MAX_VALUES) throw error("More values than an array can hold");
+                values = Arrays.copyOf(values, (int) Math.min(MAX_VALUES, count + (count >> 1) + 16L));
+            }
+            values[count++] = (int) v;
+            acc = 0;
+            digits = sign = negative = false;
+        }
+
+        private IOException error(String what) {
+            return new IOException(what + " on line " + line + " of " + file.getFileName());
+        }
+    }
+}
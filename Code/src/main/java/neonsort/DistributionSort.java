@@ -0,0 +1,269 @@
+package neonsort;
+
+import java.util.Arrays;
+
+/**
+ * Sorts that place elements by their value instead of comparing them:
+ * counting sort, LSD and MSD radix sort, and bucket sort. On the small
+ * value ranges the studio generates they run in linear time.
+ *
+ * Every read that files an element under a bucket (a counter, a radix
+ * digit) is reported as a {@link SortOps#BUCKET} op. The replay colours the
+ * slot by its bucket and spends the per-step delay on it, so each
+ * distribution pass shows up as the array breaking into coloured bands.
+ *
+ * Radix digits are 8 bits of the value with the sign bit flipped, so
+ * negative values sort first, and only the digits in which the values
+ * actually differ are visited.
+ */
+final class DistributionSort {
+
+    private static final int RADIX_BITS = 8;
+    private static final int RADIX = 1 << RADIX_BITS;
+    private static final int MSD_CUTOFF = 16; // MSD buckets this small are finished by insertion sort
+
+    private final int[] a;
+    private final SortEngine engine;
+
+    DistributionSort(int[] a, OpSink out) {
+        this.a = a;
+        this.engine = new SortEngine(a, out);
+    }
+
+    private static int digit(int v, int shift) {
+        return ((v ^ Integer.MIN_VALUE) >>> shift) & (RADIX - 1);
+    }
+
+    /** Bits in which the values differ at all; zero if they are all equal. */
+    private int differingBits() {
+        int diff = 0;
+        for(int v : a) diff |= v ^ a[0];
+        return diff;
+    }
+
+    private void markSorted(int lo, int hi) {
+        for(int i = lo; i < hi; i++) engine.mark(i, SortOps.SORTED);
+    }
+
+    // --- COUNTING SORT ---
+
+    void countingSort() {
+        int n = a.length;
+        if(n < 2) return;
+        int min = a[0], max = a[0];
+        for(int v : a) {
+            min = Math.min(min, v);
+            max = Math.max(max, v);
+        }
+        long range = (long) max - min + 1;
+        if(range > Math.max(RADIX * RADIX, n)) {
+            // The counters would outgrow the input
+            lsdRadixSort();
+            return;
+        }
+
+        int[] count = new int[(int) range];
+        for(int i = 0; i < n; i++) {
+            engine.pointer(SortOps.PTR_A, SortOps.LBL_READ, i);
+            engine.bucket(i, a[i] - min);
+            count[a[i] - min]++;
+        }
+        engine.clearPointers();
+
+        int k = 0;
+        for(int v = 0; v < range; v++) {
+            for(int c = count[v]; c > 0; c--, k++) {
+                engine.pointer(SortOps.PTR_B, SortOps.LBL_WRITE, k);
+                engine.bucket(k, v);
+                engine.write(k, v + min);
+            }
+        }
+        engine.clearPointers();
+    }
+
+    // --- LSD RADIX SORT ---
+
+    void lsdRadixSort() {
+        int n = a.length;
+        if(n < 2) return;
+        int bits = 32 - Integer.numberOfLeadingZeros(differingBits());
+        int[] aux = new int[n];
+        int[] count = new int[RADIX + 1];
+
+        for(int shift = 0; shift < bits; shift += RADIX_BITS) {
+            // The top pass always moves something, so the last pass is never skipped
+            boolean last = shift + RADIX_BITS >= bits;
+            Arrays.fill(count, 0);
+            for(int i = 0; i < n; i++) {
+                int d = digit(a[i], shift);
+                engine.pointer(SortOps.PTR_A, SortOps.LBL_READ, i);
+                engine.bucket(i, d);
+                count[d + 1]++;
+            }
+            engine.clearPointers();
+            if(count[digit(a[0], shift) + 1] == n) continue; // one bucket: this digit is the same everywhere
+
+            for(int d = 0; d < RADIX; d++) count[d + 1] += count[d];
+            for(int i = 0; i < n; i++) aux[count[digit(a[i], shift)]++] = a[i];
+
+            // Copy back: earlier passes keep the bucket colours, the last one turns slots sorted
+            for(int k = 0; k < n; k++) {
+                int d = digit(aux[k], shift);
+                engine.pointer(SortOps.PTR_B, SortOps.LBL_WRITE, k);
+                if(last) {
+                    engine.bucket(k, d);
+                    engine.write(k, aux[k]);
+                } else {
+                    engine.write(k, aux[k]);
+                    engine.bucket(k, d);
+                }
+            }
+            engine.clearPointers();
+        }
+    }
+
+    // --- MSD RADIX SORT (in place, American flag) ---
+
+    // Bucket boundaries per digit level, kept while the buckets below are sorted
+    private final int[][] ends = new int[32 / RADIX_BITS][RADIX];
+    private final int[][] next = new int[32 / RADIX_BITS][RADIX];
+
+    void msdRadixSort() {
+        int n = a.length;
+        int diff = differingBits();
+        if(n < 2 || diff == 0) return;
+        int top = (31 - Integer.numberOfLeadingZeros(diff)) / RADIX_BITS * RADIX_BITS;
+        msd(0, n, top);
+        engine.clearPointers();
+    }
+
+    /** Sorts a[lo, hi), whose values agree on every digit above {@code shift}. */
+    private void msd(int lo, int hi, int shift) {
+        if(hi - lo <= MSD_CUTOFF) {
+            engine.insertionSort(lo, hi - 1);
+            engine.mark(lo, SortOps.SORTED);
+            return;
+        }
+        int level = shift / RADIX_BITS;
+        int[] end = ends[level], nxt = next[level];
+        Arrays.fill(end, 0);
+        for(int i = lo; i < hi; i++) {
+            int d = digit(a[i], shift);
+            engine.pointer(SortOps.PTR_A, SortOps.LBL_READ, i);
+            engine.bucket(i, d);
+            end[d]++;
+        }
+        engine.clearPointers();
+        if(end[digit(a[lo], shift)] == hi - lo) {
+            // Everything in one bucket: straight on to the next digit
+            if(shift == 0) markSorted(lo, hi);
+            else msd(lo, hi, shift - RADIX_BITS);
+            return;
+        }
+
+        for(int d = 0, at = lo; d < RADIX; d++) {
+            nxt[d] = at;
+            at += end[d];
+            end[d] = at;
+        }
+        // Swap every element into the next free slot of its bucket
+        for(int b = 0; b < RADIX; b++) {
+            while(nxt[b] < end[b]) {
+                int i = nxt[b];
+                int d = digit(a[i], shift);
+                if(d == b) {
+                    nxt[b]++;
+                    continue;
+                }
+                engine.pointer(SortOps.PTR_A, SortOps.LBL_READ, i);
+                engine.pointer(SortOps.PTR_B, SortOps.LBL_WRITE, nxt[d]);
+                engine.swap(i, nxt[d]);
+                engine.bucket(nxt[d], d);
+                nxt[d]++;
+            }
+        }
+        engine.clearPointers();
+
+        for(int b = 0, from = lo; b < RADIX; b++) {
+            int to = end[b];
+            if(to - from > 1 && shift > 0) msd(from, to, shift - RADIX_BITS);
+            else markSorted(from, to);
+            from = to;
+        }
+    }
+
+    // --- BUCKET SORT ---
+
+    /** One bucket per element over the value range, each finished by insertion sort. */
+    void bucketSort() {
+        int n = a.length;
+        if(n < 2) return;
+        int min = a[0], max = a[0];
+        for(int v : a) {
+            min = Math.min(min, v);
+            max = Math.max(max, v);
+        }
+        if(min == max) return;
+        long range = (long) max - min + 1;
+
+        int[] bucketOf = new int[n];
+        int[] start = new int[n + 1];
+        for(int i = 0; i < n; i++) {
+            int b = (int) (((long) a[i] - min) * n / range);
+            bucketOf[i] = b;
+            engine.pointer(SortOps.PTR_A, SortOps.LBL_READ, i);
+            engine.bucket(i, b);
+            start[b + 1]++;
+        }
+        engine.clearPointers();
+        for(int b = 0; b < n; b++) start[b + 1] += start[b];
+
+        int[] aux = new int[n];
+        int[] auxBucket = new int[n];
+        int[] fill = Arrays.copyOf(start, n);
+        for(int i = 0; i < n; i++) {
+            int k = fill[bucketOf[i]]++;
+            aux[k] = a[i];
+            auxBucket[k] = bucketOf[i];
+        }
+        for(int k = 0; k < n; k++) {
+            engine.pointer(SortOps.PTR_B, SortOps.LBL_WRITE, k);
+            engine.write(k, aux[k]);
+            engine.bucket(k, auxBucket[k]);
+        }
+        engine.clearPointers();
+
+        for(int b = 0; b < n; b++) {
+            int from = start[b], to = start[b + 1];
+            if(from == to) continue;
+            engine.insertionSort(from, to - 1);
+            engine.mark(from, SortOps.SORTED);
+        }
+    }
+
+    // --- PROVIDERS ---
+
+    public static final class CountingSort implements SortAlgorithm {
+        @Override public String name() { return "Counting Sort"; }
+        @Override public String complexity() { return "Time Complexity: O(n + k), k = value range | No comparisons | Colors show the counter"; }
+        @Override public void sort(int[] a, OpSink out) { new DistributionSort(a, out).countingSort(); }
+    }
+
+    public static final class LsdRadixSort implements SortAlgorithm {
+        @Override public String name() { return "LSD Radix Sort"; }
+        @Override public String complexity() { return "Time Complexity: O(w·n), w = 8-bit digits in use | No comparisons | Colors show the digit bucket"; }
+        @Override public void sort(int[] a, OpSink out) { new DistributionSort(a, out).lsdRadixSort(); }
+    }
+
+    public static final class MsdRadixSort implements SortAlgorithm {
+        @Override public String name() { return "MSD Radix Sort"; }
+        @Override public String complexity() { return "Time Complexity: O(w·n), w = 8-bit digits in use | In place | Colors show the digit bucket"; }
+        @Override public void sort(int[] a, OpSink out) { new DistributionSort(a, out).msdRadixSort(); }
+    }
+
+    public static final class BucketSort implements SortAlgorithm {
+        @Override public String name() { return "Bucket Sort"; }
+        @Override public String complexity() { return "Time Complexity: Best: O(n) | Avg: O(n) | Worst: O(n²) | Colors show the bucket"; }
+        @Override public void sort(int[] a, OpSink out) { new DistributionSort(a, out).bucketSort(); }
+    }
+}
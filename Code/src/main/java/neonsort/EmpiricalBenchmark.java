@@ -0,0 +1,243 @@
+package neonsort;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Checks the complexity labels against measurements. Each algorithm runs
+ * headlessly on every {@link InputDistribution}, on sizes doubling from
+ * {@link #MIN_SIZE}: a few warm-up runs, then timed trials reported as
+ * median and p99 wall time, plus one recorded run that counts comparisons
+ * and swaps. A size whose median takes longer than {@link #STOP_NANOS}
+ * ends that ladder, so quadratic cases stop early instead of running for
+ * minutes.
+ *
+ * Per distribution, a least-squares line through log(work) against log(n)
+ * gives the empirical growth exponent, where work is every compare, swap,
+ * write and bucket read. The counts are exact and machine independent, so
+ * they decide the verdict; the exponent of the median time is printed next
+ * to them, caches and JIT included. The verdict compares the exponent with
+ * the Best/Avg/Worst terms parsed from {@link SortAlgorithm#complexity} and
+ * flags every distribution that grows faster than the average case claims,
+ * such as Quick Sort's last-element pivot going quadratic on sorted input.
+ */
+final class EmpiricalBenchmark {
+
+    static final int MIN_SIZE = 1 << 10;
+    static final int DEFAULT_MAX_SIZE = 1 << 18;
+    static final int WARMUP = 3;
+    static final int DEFAULT_TRIALS = 7;
+    static final long STOP_NANOS = 250_000_000L;
+    static final String FLAG = "  <-- check";
+    // An n log n curve fits as n^1.05 to n^1.15 over these sizes
+    private static final double BELOW = 0.25, ABOVE = 0.3;
+    private static final long SEED = 42;
+    private static final int JIT_SIZE = 1 << 12;
+    private static final long STACK_BYTES = 1L << 30; // recursive sorts on their worst inputs recurse n deep
+
+    /** One size of one ladder. */
+    record Point(int n, long medianNanos, long p99Nanos, long comparisons, long swaps, long work) {}
+
+    private final int maxSize, trials;
+    private final Consumer<String> out;
+    private volatile boolean cancelled;
+
+    EmpiricalBenchmark(int maxSize, int trials, Consumer<String> out) {
+        this.maxSize = maxSize;
+        this.trials = Math.max(1, trials);
+        this.out = out;
+    }
+
+    /** Stops at the next measurement. */
+    void cancel() { cancelled = true; }
+
+    /** Runs the algorithms on a platform thread with a deep stack, then {@code whenDone}. */
+    Thread start(List<String> algorithms, Runnable whenDone) {
+        Thread t = new Thread(null, () -> {
+            try {
+                run(algorithms);
+            } finally {
+                whenDone.run();
+            }
+        }, "benchmark", STACK_BYTES);
+        t.setDaemon(true);
+        t.start();
+        return t;
+    }
+
+    void run(List<String> algorithms) {
+        out.accept(String.format(Locale.ROOT, "Sizes %,d to %,d, %d warm-up runs and %d trials per size, ladders stop past %d ms",
+                MIN_SIZE, maxSize, WARMUP, trials, STOP_NANOS / 1_000_000));
+        for(String algo : algorithms) {
+            if(cancelled) return;
+            run(algo);
+        }
+    }
+
+    private void run(String algo) {
+        Claim claim = Claim.parse(SortAlgorithms.get(algo).complexity());
+        out.accept("");
+        out.accept("== " + algo + " ==  " + (claim == null ? "no Big-O in its label" : claim));
+        out.accept(String.format(Locale.ROOT, "  %-14s %10s %11s %11s %15s %15s", "", "n", "median ms", "p99 ms", "comparisons", "swaps"));
+
+        // Compile the hot paths first, so the smallest sizes of the first ladder are not timed in the interpreter
+        for(InputDistribution dist : InputDistribution.values()) {
+            int[] input = dist.generate(Math.min(JIT_SIZE, maxSize), SEED);
+            try {
+                for(int k = 0; k < WARMUP; k++) SortEngine.sort(algo, input.clone(), OpSink.NONE);
+            } catch(StackOverflowError e) {
+                // the ladder reports it
+            }
+        }
+
+        List<String> verdicts = new ArrayList<>();
+        for(InputDistribution dist : InputDistribution.values()) {
+            List<Point> points = new ArrayList<>();
+            String stopped = ladder(algo, dist, points);
+            if(cancelled) return;
+            if(points.size() < 3) {
+                verdicts.add(String.format(Locale.ROOT, "  %-14s too few sizes to fit%s", dist, stopped));
+                continue;
+            }
+            double work = slope(points, true), time = slope(points, false);
+            String verdict = claim == null ? "" : claim.verdict(work);
+            if(verdict.endsWith(FLAG)) stopped = stopped.replace(FLAG, "");
+            verdicts.add(String.format(Locale.ROOT, "  %-14s work ~ n^%.2f, time ~ n^%.2f  %s%s", dist, work, time, verdict, stopped));
+        }
+        verdicts.forEach(out);
+    }
+
+    /** Measures one distribution on growing sizes; returns why it stopped early, or "". */
+    private String ladder(String algo, InputDistribution dist, List<Point> points) {
+        for(int n = MIN_SIZE; n <= maxSize && !cancelled; n *= 2) {
+            Point p;
+            try {
+                p = measure(algo, dist.generate(n, SEED + n));
+            } catch(StackOverflowError e) {
+                return String.format(Locale.ROOT, " (stack overflow at n = %,d)%s", n, FLAG);
+            } catch(OutOfMemoryError e) {
+                // The parallel sorts buffer their ops per task while counting; a quadratic run can outgrow the heap
+                return String.format(Locale.ROOT, " (out of memory counting n = %,d)%s", n, FLAG);
+            }
+            points.add(p);
+            out.accept(String.format(Locale.ROOT, "  %-14s %,10d %11.3f %11.3f %,15d %,15d",
+                    dist, n, p.medianNanos() / 1e6, p.p99Nanos() / 1e6, p.comparisons(), p.swaps()));
+            if(n >= maxSize) break;
+            // Past the limit, or heading well past it at the growth seen so far
+            double next = p.medianNanos() * Math.pow(2, points.size() > 1 ? slope(points, true) : 1);
+            if(p.medianNanos() > STOP_NANOS || next > 4 * STOP_NANOS) return String.format(Locale.ROOT, " (stopped past %,d)", n);
+        }
+        return "";
+    }
+
+    private Point measure(String algo, int[] input) {
+        for(int k = 0; k < WARMUP; k++) SortEngine.sort(algo, input.clone(), OpSink.NONE);
+        long[] nanos = new long[trials];
+        for(int k = 0; k < trials; k++) {
+            int[] a = input.clone();
+            long t0 = System.nanoTime();
+            SortEngine.sort(algo, a, OpSink.NONE);
+            nanos[k] = System.nanoTime() - t0;
+        }
+        Arrays.sort(nanos);
+        Counter c = new Counter();
+        SortEngine.sort(algo, input.clone(), c);
+        return new Point(input.length, nanos[(trials - 1) / 2], nanos[(int) Math.ceil(0.99 * trials) - 1],
+                c.comparisons.sum(), c.swaps.sum(), c.work.sum());
+    }
+
+    /** Least-squares slope of log(work or median time) against log(n). */
+    static double slope(List<Point> points, boolean work) {
+        double sx = 0, sy = 0, sxx = 0, sxy = 0;
+        int m = 0;
+        for(Point p : points) {
+            double y = work ? p.work() : p.medianNanos();
+            if(y <= 0) continue;
+            double x = Math.log(p.n());
+            y = Math.log(y);
+            sx += x; sy += y; sxx += x * x; sxy += x * y;
+            m++;
+        }
+        if(m < 2) return 0;
+        return (m * sxy - sx * sy) / (m * sxx - sx * sx);
+    }
+
+    /** Counts ops by kind; thread-safe for the parallel sorts. */
+    private static final class Counter implements OpSink {
+        final LongAdder comparisons = new LongAdder(), swaps = new LongAdder(), work = new LongAdder();
+
+        @Override
+        public void accept(long op) {
+            switch(SortOps.type(op)) {
+                case SortOps.COMPARE -> { comparisons.increment(); work.increment(); }
+                case SortOps.SWAP, SortOps.WRITE -> { swaps.increment(); work.increment(); }
+                case SortOps.BUCKET -> work.increment();
+                default -> {}
+            }
+        }
+    }
+
+    // --- LABELS ---
+
+    /** The Big-O terms a label claims for the best, average and worst case. */
+    record Claim(String best, String avg, String worst) {
+
+        private static final Pattern TERM = Pattern.compile("O\\([^)]*\\)");
+
+        /**
+         * Reads "Best: O(..) | Avg: O(..) | Worst: O(..)", "Work: O(..) avg, O(..) worst"
+         * or a single unqualified term; span and stack terms are skipped.
+         * Null if the label has no term at all.
+         */
+        static Claim parse(String label) {
+            String best = null, avg = null, worst = null, any = null;
+            for(String segment : label.split("\\|")) {
+                String s = segment.trim().replaceFirst("^(Time Complexity|Work):\\s*", "");
+                if(s.startsWith("Span") || s.startsWith("Stack")) continue;
+                for(String part : s.split(",")) {
+                    String p = part.trim();
+                    Matcher m = TERM.matcher(p);
+                    if(!m.find()) continue;
+                    String term = m.group();
+                    if(p.startsWith("Best:")) best = term;
+                    else if(p.startsWith("Avg:") || p.endsWith(" avg")) avg = term;
+                    else if(p.startsWith("Worst:") || p.endsWith(" worst")) worst = term;
+                    else if(any == null) any = term;
+                }
+            }
+            if(avg == null) avg = any;
+            if(avg == null) return null;
+            return new Claim(best != null ? best : avg, avg, worst != null ? worst : avg);
+        }
+
+        /** Power of n a term grows with: 2 for O(n²), 1 for O(n), O(n log n) or O(w·n), 0 without n. */
+        static double exponent(String term) {
+            String inner = term.substring(2, term.length() - 1);
+            if(inner.contains("²") || inner.contains("^2")) return 2;
+            return inner.replace("log", "").contains("n") ? 1 : 0;
+        }
+
+        private static boolean fits(double measured, String term) {
+            double e = exponent(term);
+            return measured >= e - BELOW && measured <= e + ABOVE;
+        }
+
+        String verdict(double measured) {
+            if(fits(measured, avg)) return "matches Avg " + avg;
+            if(measured < exponent(avg) && fits(measured, best)) return "faster than Avg: matches Best " + best;
+            if(fits(measured, worst)) return "SLOWER than Avg " + avg + ": matches Worst " + worst + FLAG;
+            return "matches none of " + best + " / " + avg + " / " + worst + FLAG;
+        }
+
+        @Override
+        public String toString() {
+            return "label: Best " + best + " | Avg " + avg + " | Worst " + worst;
+        }
+    }
+}
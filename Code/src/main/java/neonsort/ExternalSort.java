@@ -0,0 +1,465 @@
+package neonsort;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Sorts a file of integers that need not fit in memory. The input is read
+ * a chunk at a time ({@link DataLoader#stream}); a pool of workers sorts
+ * each chunk and spills it to a temporary run file, and the runs are then
+ * merged up to {@link #MAX_FAN_IN} at a time through a {@link LoserTree}
+ * until one is left, written in the format the output's extension names.
+ *
+ * The memory budget is spent on workers + 1 chunk arrays: one being filled
+ * while the others are sorted and written, so reading waits whenever every
+ * worker is busy. Merging streams every run through its own NIO buffer, so
+ * the fan-in is as many buffers as the budget holds; more runs than that
+ * take extra passes. Run files go in a temporary directory next to the
+ * output, removed when the sort ends.
+ *
+ * With a preview, the sort also records a few hundred slots for the canvas:
+ * each run owns a share of them in proportion to its length, showing evenly
+ * spaced values from it. Forming a run and every merge enter and leave a
+ * level like the bottom-up {@link BufferedMergeSort#natural}, writing the
+ * values that land on the sampled positions, so the animation shows runs
+ * forming and merging pass by pass without holding the data.
+ */
+final class ExternalSort {
+
+    static final String NAME = "External Merge Sort";
+    static final int PREVIEW_SLOTS = 512;
+    static final int IO_BUFFER = 1 << 16;
+    static final int MAX_FAN_IN = 256;
+    static final long MIN_BUDGET = 1L << 20;
+
+    private static final int MAX_CHUNK = Integer.MAX_VALUE - 8;
+    private static final int MAX_IO_BUFFER = 1 << 22;
+
+    /** What a sort did, for the status line and the command line. */
+    record Report(long values, int runs, int passes, int fanIn, int workers, int chunkValues, long runNanos, long mergeNanos) {
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%,d values: %,d runs of up to %,d on %d worker%s in %.2f s, "
+                            + "%d merge pass%s of up to %d runs in %.2f s (%,.0f values/s overall)",
+                    values, runs, chunkValues, workers, workers == 1 ? "" : "s", runNanos / 1e9, passes, passes == 1 ? "" : "es", fanIn,
+                    mergeNanos / 1e9, values / Math.max(1e-9, (runNanos + mergeNanos) / 1e9));
+        }
+    }
+
+    /** A sorted run on disk and, for the preview, the slots it owns. */
+    private record Run(Path file, long length, int lo, int hi) {}
+
+    private final long budgetBytes;
+    private final int workers;
+    private final boolean preview;
+    private final Consumer<String> status;
+
+    private int[] previewInput = new int[0];
+    private final OpBuffer previewOps = new OpBuffer();
+
+    ExternalSort(long budgetBytes, int workers, boolean preview, Consumer<String> status) {
+        if(budgetBytes < MIN_BUDGET) throw new IllegalArgumentException("An external sort needs at least 1 MB of memory");
+        this.budgetBytes = budgetBytes;
+        this.workers = Math.max(1, workers);
+        this.preview = preview;
+        this.status = status;
+    }
+
+    /** The memory budget when none is given: a third of the heap. */
+    static long defaultBudget() {
+        return Math.max(MIN_BUDGET, Runtime.getRuntime().maxMemory() / 3);
+    }
+
+    /** The preview slots' values before the sort, in input order. */
+    int[] previewInput() { return previewInput; }
+
+    /** The preview's ops, to be replayed on {@link #previewInput}. */
+    OpSource previewOps() { return previewOps; }
+
+    Report sort(Path in, DataLoader.Format inFormat, Path out, DataLoader.Format outFormat) throws IOException {
+        Path dir = Files.createTempDirectory(out.toAbsolutePath().getParent(), "neonsort-runs-");
+        try {
+            long t0 = System.nanoTime();
+            Formation formation = new Formation(in, inFormat, dir);
+            List<Run> runs = formation.run();
+            long t1 = System.nanoTime();
+
+            int fanIn = (int) Math.max(2, Math.min(MAX_FAN_IN, budgetBytes / IO_BUFFER - 1));
+            int buffer = (int) Math.max(IO_BUFFER, Math.min(MAX_IO_BUFFER, budgetBytes / (fanIn + 1)) & ~7);
+            int passes = 0;
+            while(runs.size() > fanIn) {
+                passes++;
+                List<Run> next = new ArrayList<>();
+                for(int g = 0; g < runs.size(); g += fanIn) {
+                    List<Run> group = runs.subList(g, Math.min(runs.size(), g + fanIn));
+                    if(group.size() == 1) {
+                        next.add(group.get(0));
+                        continue;
+                    }
+                    status.accept(String.format("Merge pass %d: %,d of %,d runs merged", passes, g, runs.size()));
+                    Path file = Files.createTempFile(dir, "run-", ".i32");
+                    try(IntOutput o = new IntOutput(file, DataLoader.Format.INT32)) {
+                        merge(group, o, buffer);
+                    }
+                    for(Run r : group) Files.delete(r.file());
+                    next.add(new Run(file, group.stream().mapToLong(Run::length).sum(), group.get(0).lo(), group.get(group.size() - 1).hi()));
+                }
+                runs = next;
+            }
+            status.accept(String.format("Final merge of %,d runs into %s", runs.size(), out.getFileName()));
+            try(IntOutput o = new IntOutput(out, outFormat)) {
+                if(!runs.isEmpty()) {
+                    passes++;
+                    merge(runs, o, buffer);
+                }
+            }
+            previewOps.accept(SortOps.pointer(SortOps.PTR_A, SortOps.LBL_NONE, -1));
+            previewOps.accept(SortOps.pointer(SortOps.PTR_B, SortOps.LBL_NONE, -1));
+            return new Report(formation.values, formation.runs.size(), passes, fanIn, workers, formation.chunk,
+                    t1 - t0, System.nanoTime() - t1);
+        } finally {
+            try(var files = Files.list(dir)) {
+                for(Path f : (Iterable<Path>) files::iterator) Files.deleteIfExists(f);
+            }
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    // --- RUN FORMATION ---
+
+    /** Reads chunks on the calling thread and hands each to a worker to sort and spill. */
+    private final class Formation {
+        private final Path in, dir;
+        private final DataLoader.Format format;
+        private final int chunk;
+        private final int perRun; // preview slots per full chunk
+        private final BlockingQueue<int[]> free;
+        private final ExecutorService pool;
+        private final AtomicInteger workerIds = new AtomicInteger();
+        private final ThreadLocal<Integer> workerId = ThreadLocal.withInitial(workerIds::getAndIncrement);
+        private int allocated;
+        private int slots; // preview slots handed out so far
+
+        private final List<Run> runs = new ArrayList<>();
+        private final List<OpBuffer> segments = new ArrayList<>(); // per run: the worker and its preview ops
+        private final List<Future<?>> spills = new ArrayList<>();
+        private long values;
+
+        Formation(Path in, DataLoader.Format format, Path dir) throws IOException {
+            this.in = in;
+            this.format = format;
+            this.dir = dir;
+            long size = Files.size(in);
+            long estimate = switch(format) {
+                case INT32 -> size / Integer.BYTES;
+                case INT64 -> size / Long.BYTES;
+                case TEXT -> size / 8; // as DataLoader guesses; more runs than expected just get fewer slots
+            };
+            long fit = budgetBytes / Integer.BYTES / (workers + 1);
+            long cap = format == DataLoader.Format.TEXT ? size / 2 + 1 : Math.max(1, estimate);
+            this.chunk = (int) Math.max(1, Math.min(MAX_CHUNK, Math.min(fit, cap)));
+            long expectedRuns = Math.max(1, (estimate + chunk - 1) / chunk);
+            this.perRun = (int) Math.max(1, PREVIEW_SLOTS / expectedRuns);
+            this.free = new ArrayBlockingQueue<>(workers + 1);
+            AtomicInteger threads = new AtomicInteger();
+            this.pool = Executors.newFixedThreadPool(workers, r -> {
+                Thread t = new Thread(r, "external-sort-" + threads.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+
+        List<Run> run() throws IOException {
+            String name = in.getFileName().toString();
+            try {
+                DataLoader.stream(in, format, buffer(), this::spill, (done, total, count) -> status.accept(String.format(
+                        "Forming runs from %s: %d%%  (%,d values, %,d runs)", name, total == 0 ? 100 : done * 100 / total, count, runs.size())));
+                for(Future<?> f : spills) f.get();
+            } catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while forming runs", e);
+            } catch(ExecutionException e) {
+                throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+            } finally {
+                pool.shutdownNow();
+            }
+            if(preview) {
+                int worker = -1;
+                for(int r = 0; r < runs.size(); r++) {
+                    OpBuffer ops = segments.get(r);
+                    for(long k = 0; k < ops.size(); k++) {
+                        long op = ops.get(k);
+                        if(SortOps.type(op) == SortOps.WORKER) {
+                            if(SortOps.a(op) == worker) continue;
+                            worker = SortOps.a(op);
+                        }
+                        previewOps.accept(op);
+                    }
+                }
+            }
+            return runs;
+        }
+
+        /** The next array to fill: a new one while the budget allows, else one a worker has finished with. */
+        private int[] buffer() throws IOException {
+            if(allocated < workers + 1 && free.isEmpty()) {
+                allocated++;
+                return new int[chunk];
+            }
+            try {
+                return free.take();
+            } catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while forming runs", e);
+            }
+        }
+
+        private int[] spill(int[] chunkValues, int count) throws IOException {
+            int lo = this.slots;
+            int slots = (int) Math.max(1, ((long) count * perRun + chunk - 1) / chunk);
+            int hi = lo + slots - 1;
+            this.slots += slots;
+            if(preview) {
+                previewInput = Arrays.copyOf(previewInput, hi + 1);
+                for(int j = 0; j < slots; j++) previewInput[lo + j] = chunkValues[sample(j, count, slots)];
+            }
+            Path file = Files.createTempFile(dir, "run-", ".i32");
+            runs.add(new Run(file, count, lo, hi));
+            OpBuffer ops = new OpBuffer(slots + 4);
+            segments.add(ops);
+            values += count;
+            spills.add(pool.submit(() -> {
+                try {
+                    Arrays.sort(chunkValues, 0, count);
+                    try(IntOutput o = new IntOutput(file, DataLoader.Format.INT32)) {
+                        o.putAll(chunkValues, count);
+                    }
+                    if(preview) {
+                        ops.accept(SortOps.worker(workerId.get()));
+                        ops.accept(SortOps.enter(lo, hi));
+                        for(int j = 0; j < slots; j++) ops.accept(SortOps.write(lo + j, chunkValues[sample(j, count, slots)]));
+                        ops.accept(SortOps.leave(lo, hi));
+                    }
+                    return null;
+                } finally {
+                    free.add(chunkValues);
+                }
+            }));
+            return buffer();
+        }
+    }
+
+    /** Position of preview slot j of {@code slots} in a run of {@code length}. */
+    private static int sample(int j, long length, int slots) {
+        return (int) (j * length / slots);
+    }
+
+    // --- MERGING ---
+
+    /** Merges the runs' values into {@code out} in order; the preview shows the values landing on its slots. */
+    private void merge(List<Run> group, IntOutput out, int buffer) throws IOException {
+        int k = group.size();
+        Run first = group.get(0), last = group.get(k - 1);
+        int lo = first.lo(), hi = last.hi(), slots = hi - lo + 1;
+        long length = 0;
+        for(Run r : group) length += r.length();
+
+        ArrayDeque<IntInput> open = new ArrayDeque<>();
+        try {
+            IntInput[] in = new IntInput[k];
+            long[] heads = new long[k];
+            long[] taken = new long[k];
+            for(int i = 0; i < k; i++) {
+                in[i] = new IntInput(group.get(i).file(), buffer);
+                open.push(in[i]);
+                heads[i] = in[i].next() ? in[i].value() : LoserTree.EXHAUSTED;
+            }
+            if(preview) previewOps.accept(SortOps.enter(lo, hi));
+            LoserTree tree = new LoserTree(heads);
+            long done = 0, nextSample = 0;
+            int slot = 0;
+            for(int w = tree.winner(); heads[w] != LoserTree.EXHAUSTED; ) {
+                int v = (int) heads[w];
+                out.put(v);
+                if(preview && done == nextSample) {
+                    Run src = group.get(w);
+                    int read = src.lo() + (int) (taken[w] * (src.hi() - src.lo() + 1) / src.length());
+                    previewOps.accept(SortOps.pointer(SortOps.PTR_A, SortOps.LBL_READ, read));
+                    previewOps.accept(SortOps.pointer(SortOps.PTR_B, SortOps.LBL_WRITE, lo + slot));
+                    previewOps.accept(SortOps.write(lo + slot, v));
+                    slot++;
+                    nextSample = slot < slots ? (long) slot * length / slots : -1;
+                }
+                done++;
+                taken[w]++;
+                w = tree.replace(w, in[w].next() ? in[w].value() : LoserTree.EXHAUSTED);
+            }
+            if(preview) previewOps.accept(SortOps.leave(lo, hi));
+        } finally {
+            for(IntInput i : open) i.close();
+        }
+    }
+
+    /**
+     * Tournament tree over k sorted inputs. Each inner node keeps the loser
+     * of the match played there and the winner moves up, so replacing the
+     * winner's key replays one match per level: about log2 k comparisons,
+     * against log2 k to 2 log2 k for a binary heap. Leaf i sits at k + i,
+     * which works for any k, not just powers of two.
+     */
+    static final class LoserTree {
+        static final long EXHAUSTED = Long.MAX_VALUE; // above every int key
+
+        private final long[] key;  // current key of each input
+        private final int[] loser; // loser[0] is the overall winner
+
+        LoserTree(long[] key) {
+            this.key = key;
+            this.loser = new int[key.length];
+            loser[0] = build(1);
+        }
+
+        private int build(int node) {
+            int k = key.length;
+            if(node >= k) return node - k;
+            int l = build(2 * node), r = build(2 * node + 1);
+            if(key[r] < key[l]) {
+                loser[node] = l;
+                return r;
+            }
+            loser[node] = r;
+            return l;
+        }
+
+        int winner() { return loser[0]; }
+
+        /** Gives the winner's input its next key and returns the new winner. */
+        int replace(int w, long next) {
+            key[w] = next;
+            for(int node = (w + key.length) >>> 1; node >= 1; node >>>= 1) {
+                int other = loser[node];
+                if(key[other] < key[w]) {
+                    loser[node] = w;
+                    w = other;
+                }
+            }
+            loser[0] = w;
+            return w;
+        }
+    }
+
+    // --- CHANNELS ---
+
+    /** Reads a run of raw little-endian int32 through one direct buffer. */
+    private static final class IntInput implements Closeable {
+        private final FileChannel ch;
+        private final ByteBuffer buf;
+        private int value;
+
+        IntInput(Path file, int bytes) throws IOException {
+            ch = FileChannel.open(file, StandardOpenOption.READ);
+            buf = ByteBuffer.allocateDirect(bytes).order(ByteOrder.LITTLE_ENDIAN);
+            buf.flip();
+        }
+
+        boolean next() throws IOException {
+            if(buf.remaining() < Integer.BYTES) {
+                buf.compact();
+                while(buf.position() < Integer.BYTES && ch.read(buf) > 0) {
+                    // a short read; runs are whole ints, so only the end stops it
+                }
+                buf.flip();
+                if(buf.remaining() < Integer.BYTES) return false;
+            }
+            value = buf.getInt();
+            return true;
+        }
+
+        int value() { return value; }
+
+        @Override
+        public void close() throws IOException {
+            ch.close();
+        }
+    }
+
+    /** Writes ints through one direct buffer as raw int32 / int64 (little-endian) or as one per line. */
+    private static final class IntOutput implements Closeable {
+        private final FileChannel ch;
+        private final ByteBuffer buf = ByteBuffer.allocateDirect(IO_BUFFER).order(ByteOrder.LITTLE_ENDIAN);
+        private final DataLoader.Format format;
+        private final byte[] digits = new byte[12];
+
+        IntOutput(Path file, DataLoader.Format format) throws IOException {
+            this.ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            this.format = format;
+        }
+
+        void put(int v) throws IOException {
+            if(buf.remaining() < digits.length) drain();
+            switch(format) {
+                case INT32 -> buf.putInt(v);
+                case INT64 -> buf.putLong(v);
+                case TEXT -> {
+                    long x = v;
+                    if(x < 0) {
+                        buf.put((byte) '-');
+                        x = -x;
+                    }
+                    int n = 0;
+                    do {
+                        digits[n++] = (byte) ('0' + x % 10);
+                        x /= 10;
+                    } while(x > 0);
+                    while(n > 0) buf.put(digits[--n]);
+                    buf.put((byte) '\n');
+                }
+            }
+        }
+
+        /** Writes {@code a[0..count)} as raw int32, a buffer at a time. */
+        void putAll(int[] a, int count) throws IOException {
+            for(int i = 0; i < count; ) {
+                if(buf.remaining() < Integer.BYTES) drain();
+                int n = Math.min(count - i, buf.remaining() / Integer.BYTES);
+                buf.asIntBuffer().put(a, i, n);
+                buf.position(buf.position() + n * Integer.BYTES);
+                i += n;
+            }
+        }
+
+        private void drain() throws IOException {
+            buf.flip();
+            while(buf.hasRemaining()) ch.write(buf);
+            buf.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                drain();
+            } finally {
+                ch.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,343 @@
+package neonsort;
+
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Renders a sort run to image files without a window: a PNG per frame
+ * (frame_000000.png, ...) or one animated GIF.
+ *
+ * The caller records the run once, since it needs the op count to pick a
+ * pace with {@link #opsPerFrame}. The recording is replayed at a fixed
+ * timestep: every frame applies the same number of ops, steps the node
+ * physics once and paints
+ * with the {@link CanvasPainter} the canvas uses. Like the canvas, only the
+ * painter's dirty region is repainted, into one image kept for the whole
+ * run. That happens on the calling thread as fast as it can go. Each frame
+ * is then copied out and handed through a bounded queue to a pool of
+ * encoder threads, one per core by default; copies are recycled through a
+ * second bounded queue, so a slow disk throttles the painter instead of
+ * filling the heap.
+ *
+ * PNG frames are whole images, independent, and written by whichever
+ * encoder takes them. GIF frames are just the dirty rectangle; encoders
+ * compress them in parallel and then take turns appending, lowest frame
+ * first.
+ */
+final class FrameExporter {
+
+    enum Format { PNG, GIF }
+
+    /** Told after every frame that has been written. */
+    interface Progress {
+        void frames(long written, long total);
+    }
+
+    private static final double LIVE_PHYSICS = 0.15; // per frame at the studio's 60 FPS
+
+    private final int width, height, fps, encoders;
+    private final ViewMode viewMode;
+
+    FrameExporter(int width, int height, int fps, ViewMode viewMode, int encoders) {
+        this.width = width;
+        this.height = height;
+        this.fps = fps;
+        this.viewMode = viewMode;
+        this.encoders = Math.max(1, encoders);
+    }
+
+    /** A directory of PNGs, or a single GIF if the name ends in .gif. */
+    static Format formatOf(Path out) {
+        return out.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".gif") ? Format.GIF : Format.PNG;
+    }
+
+    /** Ops per frame for a video of about {@code seconds} at {@code fps}. */
+    static int opsPerFrame(long ops, double seconds, int fps) {
+        return (int) Math.max(1, Math.min(TurboPlayback.MAX_K, Math.ceil(ops / Math.max(1.0, seconds * fps))));
+    }
+
+    /**
+     * Writes the animation of {@code ops}, recorded by sorting {@code input}
+     * with the given algorithm, to {@code out}. Returns the number of frames
+     * written.
+     */
+    long export(String algorithm, int[] input, OpSource ops, int opsPerFrame, Path out, Progress progress)
+            throws IOException, InterruptedException {
+        SortRun run = new SortRun(algorithm, new SortRun.Control() {
+            @Override public boolean running() { return true; }
+            @Override public void awaitOp() {}
+            @Override public void checkPaused() {}
+            @Override public int delayMs() { return 0; }
+            @Override public ViewMode viewMode() { return viewMode; }
+        }, false);
+        NodeStore nodes = run.nodes;
+        nodes.addAll(input, width / 2.0, height / 2.0);
+        layout(run);
+
+        // Same glide per second of video as the live view
+        double physics = 1 - Math.pow(1 - LIVE_PHYSICS, 60.0 / fps);
+        double step = opsPerFrame > TurboPlayback.SNAP_K ? 1.0 : physics;
+        long total = (ops.size() + opsPerFrame - 1) / opsPerFrame + 2;
+
+        Format format = formatOf(out);
+        if(format == Format.PNG) Files.createDirectories(out);
+        try(Pipeline pipe = new Pipeline(format, out, total, progress)) {
+            Painter painter = new Painter(run);
+            pipe.put(painter.frame(pipe, format));
+
+            run.beginBatch();
+            boolean more = true;
+            while(more || nodes.inFlight()) {
+                if(more) more = run.applyBatch(ops, opsPerFrame);
+                nodes.update(step);
+                pipe.put(painter.frame(pipe, format));
+            }
+            run.pointers.clear();
+            nodes.fillState(SortOps.SORTED);
+            pipe.put(painter.frame(pipe, format));
+            return pipe.finish();
+        }
+    }
+
+    /** Spreads the nodes across the frame like the canvas does, and lets them arrive. */
+    private void layout(SortRun run) {
+        int margin = 60;
+        NodeStore ns = run.nodes;
+        double spacing = (double) (width - margin * 2) / Math.max(1, ns.size());
+        double y = (viewMode == ViewMode.NODES) ? 150 : CanvasPainter.RASTER_BOTTOM;
+        int max = 1;
+        for(int i = 0; i < ns.size(); i++) {
+            ns.setTarget(i, margin + spacing / 2 + i * spacing, y);
+            max = Math.max(max, ns.value(i));
+        }
+        run.maxValue = max;
+        while(ns.inFlight()) ns.update(1.0);
+    }
+
+    /** Keeps the full frame between calls and repaints only what changed. */
+    private final class Painter {
+        private final SortRun run;
+        private final CanvasPainter painter = new CanvasPainter();
+        private final BufferedImage canvas = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        private final int[] pixels = ((DataBufferInt) canvas.getRaster().getDataBuffer()).getData();
+        private final Rectangle dirty = new Rectangle();
+        private final Rectangle bounds = new Rectangle(width, height);
+        private boolean first = true;
+
+        Painter(SortRun run) {
+            this.run = run;
+        }
+
+        /**
+         * Brings the canvas up to date and copies it into a pooled image: all
+         * of it for PNG, only the changed rectangle (packed row by row from
+         * the start) for GIF.
+         */
+        Frame frame(Pipeline pipe, Format format) throws InterruptedException {
+            boolean changed = painter.dirtyRegion(width, height, run.nodes, run.pointers, viewMode, run.maxValue,
+                    CanvasPainter.RASTER_BOTTOM, CanvasPainter.BAR_AREA_HEIGHT, dirty);
+            Rectangle r = first ? new Rectangle(bounds) : dirty.intersection(bounds);
+            if(first || (changed && !r.isEmpty())) {
+                Graphics2D g = canvas.createGraphics();
+                try {
+                    g.clip(r);
+                    painter.paint(g, width, height, run.nodes, run.pointers, viewMode, run.maxValue);
+                } finally {
+                    g.dispose();
+                }
+            } else {
+                r.setBounds(0, 0, 1, 1); // nothing changed: a GIF frame still needs one pixel
+            }
+            first = false;
+
+            BufferedImage img = pipe.image();
+            int[] dst = ((DataBufferInt) img.getRaster().getDataBuffer()).getData();
+            if(format == Format.PNG) {
+                System.arraycopy(pixels, 0, dst, 0, pixels.length);
+                return new Frame(img, 0, 0, width, height);
+            }
+            for(int y = 0; y < r.height; y++) {
+                System.arraycopy(pixels, (r.y + y) * width + r.x, dst, y * r.width, r.width);
+            }
+            return new Frame(img, r.x, r.y, r.width, r.height);
+        }
+    }
+
+    // --- ENCODING ---
+
+    private record Frame(BufferedImage image, int x, int y, int w, int h) {}
+
+    private static final Frame END = new Frame(null, 0, 0, 0, 0);
+
+    /** Bounded queue of painted frames, drained by the encoder threads. */
+    private final class Pipeline implements AutoCloseable {
+        private final Format format;
+        private final Path out;
+        private final long total;
+        private final Progress progress;
+
+        private final BlockingQueue<Numbered> frames = new ArrayBlockingQueue<>(encoders);
+        private final BlockingQueue<BufferedImage> free;
+        private int allocated;
+        private final List<Thread> threads = new ArrayList<>();
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        private long queued;
+
+        // GIF only: frames are appended strictly in order
+        private final ReentrantLock turn = new ReentrantLock();
+        private final Condition myTurn = turn.newCondition();
+        private long nextToWrite;
+        private GifWriter.ColorTable colors;
+        private OutputStream gif;
+
+        private record Numbered(long index, Frame frame) {}
+
+        Pipeline(Format format, Path out, long total, Progress progress) throws IOException {
+            this.format = format;
+            this.out = out;
+            this.total = total;
+            this.progress = progress;
+            this.free = new ArrayBlockingQueue<>(poolSize());
+            if(format == Format.GIF) {
+                colors = new GifWriter.ColorTable();
+                gif = new BufferedOutputStream(Files.newOutputStream(out), 1 << 16);
+                GifWriter.writeHeader(gif, width, height, colors);
+            }
+            for(int k = 0; k < encoders; k++) {
+                Thread t = new Thread(this::encodeLoop, "frame-encoder-" + k);
+                t.setDaemon(true);
+                t.start();
+                threads.add(t);
+            }
+        }
+
+        /** A frame image, new while the pool is still filling, otherwise one an encoder has finished with. */
+        BufferedImage image() throws InterruptedException {
+            BufferedImage img = free.poll();
+            if(img != null) return img;
+            if(allocated < poolSize()) {
+                allocated++;
+                return new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            }
+            return free.take();
+        }
+
+        /** Enough images for a full queue, one per encoder and the one being filled. */
+        private int poolSize() {
+            return encoders * 2 + 1;
+        }
+
+        void put(Frame f) throws IOException, InterruptedException {
+            rethrow();
+            frames.put(new Numbered(queued++, f));
+        }
+
+        /** Waits for every frame to be written; returns how many there were. */
+        long finish() throws IOException, InterruptedException {
+            frames.put(new Numbered(-1, END));
+            for(Thread t : threads) t.join();
+            rethrow();
+            if(gif != null) {
+                GifWriter.writeTrailer(gif);
+                gif.flush();
+            }
+            return queued;
+        }
+
+        /** Stops the encoders whether or not they got through, so a failed export leaves no thread behind. */
+        @Override
+        public void close() throws IOException {
+            frames.clear();
+            frames.offer(new Numbered(-1, END)); // only fails if an encoder just put END back
+            for(Thread t : threads) t.interrupt();
+            if(gif != null) gif.close();
+        }
+
+        private void rethrow() throws IOException {
+            Throwable e = failure.get();
+            if(e instanceof IOException io) throw io;
+            if(e != null) throw new IOException("Frame encoding failed", e);
+        }
+
+        private void encodeLoop() {
+            PngWriter png = format == Format.PNG ? new PngWriter() : null;
+            GifWriter lzw = format == Format.GIF ? new GifWriter(colors) : null;
+            int delay = Math.max(2, Math.round(100.0f / fps)); // centiseconds
+            try {
+                while(true) {
+                    Numbered n = frames.take();
+                    if(n.frame() == END) {
+                        frames.put(n); // let the other encoders see it too
+                        return;
+                    }
+                    Frame f = n.frame();
+                    if(failure.get() == null) {
+                        try {
+                            if(png != null) {
+                                png.write(f.image(), out.resolve(String.format("frame_%06d.png", n.index())));
+                            } else {
+                                int[] px = ((DataBufferInt) f.image().getRaster().getDataBuffer()).getData();
+                                append(n.index(), lzw.frame(px, f.x(), f.y(), f.w(), f.h(), delay));
+                            }
+                            progress.frames(n.index() + 1, total);
+                        } catch(InterruptedException e) {
+                            throw e;
+                        } catch(Exception | OutOfMemoryError e) {
+                            failure.compareAndSet(null, e);
+                            skipTurn();
+                        }
+                    } else {
+                        skipTurn(); // dropped
+                    }
+                    free.offer(f.image());
+                }
+            } catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void append(long index, byte[] block) throws IOException, InterruptedException {
+            turn.lock();
+            try {
+                while(nextToWrite < index && failure.get() == null) myTurn.await();
+                if(failure.get() != null) return; // the file is abandoned
+                gif.write(block);
+                nextToWrite++;
+                myTurn.signalAll();
+            } finally {
+                turn.unlock();
+            }
+        }
+
+        /**
+         * A GIF frame that failed or was dropped after a failure never gets
+         * its turn, so it wakes every encoder waiting for one instead: they
+         * see the failure and drop their frames too, rather than wait for
+         * lower frames that will never be written.
+         */
+        private void skipTurn() {
+            if(format != Format.GIF) return;
+            turn.lock();
+            try {
+                myTurn.signalAll();
+            } finally {
+                turn.unlock();
+            }
+        }
+    }
+}
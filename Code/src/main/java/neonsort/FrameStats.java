@@ -0,0 +1,52 @@
+package neonsort;
+
+import java.util.Arrays;
+
+/**
+ * Histogram of frame render times in fixed 0.1 ms buckets up to 100 ms,
+ * with everything slower counted in the last bucket. Recording is a couple
+ * of array writes and never allocates. EDT only.
+ */
+final class FrameStats {
+
+    static final long BUCKET_NANOS = 100_000;
+    private static final int BUCKETS = 1000;
+
+    private final long[] buckets = new long[BUCKETS + 1];
+    private long count;
+    private long total;
+    private long max;
+
+    void record(long nanos) {
+        int b = (int) Math.min(BUCKETS, nanos / BUCKET_NANOS);
+        buckets[b]++;
+        count++;
+        total += nanos;
+        if(nanos > max) max = nanos;
+    }
+
+    void reset() {
+        Arrays.fill(buckets, 0);
+        count = total = max = 0;
+    }
+
+    long count() { return count; }
+    long max() { return max; }
+    long mean() { return count == 0 ? 0 : total / count; }
+
+    /** Upper edge of the bucket holding the p-th percentile (0 < p <= 1), capped at the slowest frame seen. */
+    long percentile(double p) {
+        if(count == 0) return 0;
+        long rank = (long) Math.ceil(p * count);
+        long seen = 0;
+        for(int b = 0; b <= BUCKETS; b++) {
+            seen += buckets[b];
+            if(seen >= rank) return Math.min(max, (b + 1) * BUCKET_NANOS);
+        }
+        return max;
+    }
+
+    /** Frames in bucket b, covering [b, b+1) * BUCKET_NANOS; the last bucket is open-ended. */
+    long bucket(int b) { return buckets[b]; }
+    int buckets() { return buckets.length; }
+}
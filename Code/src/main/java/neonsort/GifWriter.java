@@ -0,0 +1,245 @@
+package neonsort;
+
+import java.awt.Color;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static neonsort.Palette.*;
+
+/**
+ * Minimal animated GIF encoder. Every frame shares one global
+ * {@link ColorTable} and is encoded on its own into a byte block
+ * (control extension, image descriptor, LZW data), so frames can be
+ * compressed on any number of threads and only appending the blocks has
+ * to happen in order. A frame may cover just a sub-rectangle; the previous
+ * frame is left in place around it.
+ *
+ * One instance per encoder thread; it keeps its LZW tables between frames.
+ */
+final class GifWriter {
+
+    private static final int CLEAR = 256, EOI = 257, FIRST = 258;
+    private static final int MAX_CODES = 1 << 12;
+    private static final int HSIZE = 5003; // prime, about 120% of MAX_CODES
+
+    private final ColorTable colors;
+    private final int[] htab = new int[HSIZE], codetab = new int[HSIZE];
+    private final ByteArrayOutputStream buf = new ByteArrayOutputStream(1 << 16);
+    private final byte[] block = new byte[255];
+    private int blockLen;
+    private int bits, bitCount;
+    private int codeSize, maxCode, next;
+    private boolean clearFlag;
+
+    GifWriter(ColorTable colors) {
+        this.colors = colors;
+    }
+
+    /** File header, global colour table and the loop-forever extension. */
+    static void writeHeader(OutputStream out, int width, int height, ColorTable colors) throws IOException {
+        out.write("GIF89a".getBytes(StandardCharsets.US_ASCII));
+        le16(out, width);
+        le16(out, height);
+        out.write(0xF7); // global table of 256 entries, 8 bits per channel
+        out.write(0);    // background index
+        out.write(0);    // square pixels
+        out.write(colors.table);
+        out.write(new byte[]{0x21, (byte) 0xFF, 11});
+        out.write("NETSCAPE2.0".getBytes(StandardCharsets.US_ASCII));
+        out.write(new byte[]{3, 1, 0, 0, 0});
+    }
+
+    static void writeTrailer(OutputStream out) throws IOException {
+        out.write(0x3B);
+    }
+
+    /**
+     * Encodes one frame: {@code w * h} pixels, row by row from the start of
+     * {@code px}, drawn at ({@code x}, {@code y}) and shown for
+     * {@code delay} hundredths of a second.
+     */
+    byte[] frame(int[] px, int x, int y, int w, int h, int delay) {
+        buf.reset();
+        buf.write(0x21);
+        buf.write(0xF9);
+        buf.write(4);
+        buf.write(1 << 2); // disposal: leave in place
+        le16(buf, delay);
+        buf.write(0);      // no transparency
+        buf.write(0);
+
+        buf.write(0x2C);
+        le16(buf, x);
+        le16(buf, y);
+        le16(buf, w);
+        le16(buf, h);
+        buf.write(0);      // no local table, not interlaced
+
+        buf.write(8);      // LZW minimum code size
+        compress(px, w * h);
+        buf.write(0);
+        return buf.toByteArray();
+    }
+
+    // --- LZW ---
+    // The classic compress(1)/GIF scheme: open-addressed hash of (prefix, byte) -> code,
+    // codes grow from 9 to 12 bits, and a full table is cleared and restarted.
+
+    private void compress(int[] px, int n) {
+        Arrays.fill(htab, -1);
+        next = FIRST;
+        codeSize = 9;
+        maxCode = (1 << codeSize) - 1;
+        clearFlag = false;
+        bits = bitCount = blockLen = 0;
+        output(CLEAR);
+
+        int ent = colors.index(px[0]);
+        outer:
+        for(int i = 1; i < n; i++) {
+            int c = colors.index(px[i]);
+            int fcode = (c << 12) + ent;
+            int h = (c << 4) ^ ent;
+            if(htab[h] == fcode) {
+                ent = codetab[h];
+                continue;
+            }
+            if(htab[h] >= 0) {
+                int disp = h == 0 ? 1 : HSIZE - h;
+                do {
+                    if((h -= disp) < 0) h += HSIZE;
+                    if(htab[h] == fcode) {
+                        ent = codetab[h];
+                        continue outer;
+                    }
+                } while(htab[h] >= 0);
+            }
+            output(ent);
+            ent = c;
+            if(next < MAX_CODES) {
+                codetab[h] = next++;
+                htab[h] = fcode;
+            } else {
+                Arrays.fill(htab, -1);
+                next = FIRST;
+                clearFlag = true;
+                output(CLEAR);
+            }
+        }
+        output(ent);
+        output(EOI);
+        if(bitCount > 0) put(bits);
+        if(blockLen > 0) endBlock();
+    }
+
+    private void output(int code) {
+        bits |= code << bitCount;
+        bitCount += codeSize;
+        while(bitCount >= 8) {
+            put(bits);
+            bits >>>= 8;
+            bitCount -= 8;
+        }
+        if(clearFlag) {
+            codeSize = 9;
+            maxCode = (1 << codeSize) - 1;
+            clearFlag = false;
+        } else if(next > maxCode) {
+            codeSize++;
+            maxCode = codeSize == 12 ? MAX_CODES : (1 << codeSize) - 1;
+        }
+    }
+
+    /** Data goes out in sub-blocks of at most 255 bytes, each preceded by its length. */
+    private void put(int b) {
+        block[blockLen++] = (byte) b;
+        if(blockLen == block.length) endBlock();
+    }
+
+    private void endBlock() {
+        buf.write(blockLen);
+        buf.write(block, 0, blockLen);
+        blockLen = 0;
+    }
+
+    private static void le16(OutputStream out, int v) throws IOException {
+        out.write(v & 0xFF);
+        out.write(v >>> 8 & 0xFF);
+    }
+
+    private static void le16(ByteArrayOutputStream out, int v) {
+        out.write(v & 0xFF);
+        out.write(v >>> 8 & 0xFF);
+    }
+
+    /**
+     * Fixed 256-colour palette: every colour the painter uses exactly, with
+     * the dim variants {@link BarRaster} draws, then a 6x6x6 cube for
+     * anti-aliased edges. A 15-bit lookup table maps each pixel in O(1),
+     * and the palette's own colours always map to themselves. Immutable,
+     * shared by all encoder threads.
+     */
+    static final class ColorTable {
+        private final byte[] table = new byte[256 * 3];
+        private final byte[] lut = new byte[1 << 15];
+
+        ColorTable() {
+            List<Integer> exact = new ArrayList<>();
+            for(Color c : new Color[]{BG_COLOR, PANEL_COLOR, BORDER_COLOR, COL_TEXT_BRIGHT, COL_POINTER, COL_PIVOT, Color.WHITE, Color.BLACK}) {
+                exact.add(c.getRGB() & 0xFFFFFF);
+            }
+            for(int rgb : STATE_RGB) exact.add(rgb & 0xFFFFFF);
+            for(int rgb : WORKER_RGB) exact.add(rgb & 0xFFFFFF);
+            int bg = BG_COLOR.getRGB();
+            for(int k = 0, n = exact.size(); k < n; k++) exact.add(BarRaster.blend(exact.get(k), bg) & 0xFFFFFF); // dim bands
+
+            int[] rgb = new int[256];
+            int size = 0;
+            for(int c : exact) if(!contains(rgb, size, c)) rgb[size++] = c;
+            int exactCount = size;
+            for(int r = 0; r < 6 && size < 256; r++)
+                for(int g = 0; g < 6 && size < 256; g++)
+                    for(int b = 0; b < 6 && size < 256; b++) rgb[size++] = (r * 51) << 16 | (g * 51) << 8 | (b * 51);
+
+            for(int i = 0; i < size; i++) {
+                table[i * 3] = (byte) (rgb[i] >> 16);
+                table[i * 3 + 1] = (byte) (rgb[i] >> 8);
+                table[i * 3 + 2] = (byte) rgb[i];
+            }
+
+            for(int key = 0; key < lut.length; key++) {
+                int r = (key >> 10 & 31) << 3 | 4, g = (key >> 5 & 31) << 3 | 4, b = (key & 31) << 3 | 4;
+                int best = 0, bestD = Integer.MAX_VALUE;
+                for(int i = 0; i < size; i++) {
+                    int dr = r - (rgb[i] >> 16 & 255), dg = g - (rgb[i] >> 8 & 255), db = b - (rgb[i] & 255);
+                    int d = dr * dr + dg * dg + db * db;
+                    if(d < bestD) {
+                        bestD = d;
+                        best = i;
+                    }
+                }
+                lut[key] = (byte) best;
+            }
+            for(int i = 0; i < exactCount; i++) lut[key(rgb[i])] = (byte) i;
+        }
+
+        /** Palette index for an RGB pixel. */
+        int index(int rgb) {
+            return lut[key(rgb)] & 0xFF;
+        }
+
+        private static int key(int rgb) {
+            return (rgb >> 9 & 0x7C00) | (rgb >> 6 & 0x3E0) | (rgb >> 3 & 0x1F);
+        }
+
+        private static boolean contains(int[] a, int n, int v) {
+            for(int i = 0; i < n; i++) if(a[i] == v) return true;
+            return false;
+        }
+    }
+}
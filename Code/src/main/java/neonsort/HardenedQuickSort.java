@@ -0,0 +1,211 @@
+package neonsort;
+
+import java.util.SplittableRandom;
+
+/**
+ * Quick sort that stays O(n log n) on any input: a chosen pivot instead of
+ * the last element, Bentley-McIlroy 3-way partitioning so runs of equal
+ * values are finished in one pass, recursion into the smaller side only (the
+ * larger side is looped on, so the stack is O(log n) deep), and a switch
+ * to heap sort once a range has been partitioned 2·log₂ n times without
+ * getting small (introsort). Ranges of {@link #CUTOFF} or fewer are
+ * finished by insertion sort.
+ *
+ * The pivot choice is part of the animation: the candidates are compared
+ * where they stand, and the winner is swapped to the front of the range
+ * and lifted as the pivot. Once a partition is done, the block of values
+ * equal to the pivot turns sorted in one go.
+ */
+final class HardenedQuickSort {
+
+    enum Pivot {
+        /** Median of the first, middle and last element. */
+        MEDIAN_OF_3,
+        /** Tukey's median of three medians of three, over nine spread-out elements; median of 3 on small ranges. */
+        NINTHER,
+        /** A uniformly random element, from a fixed seed so a recording is reproducible. */
+        RANDOM
+    }
+
+    static final int CUTOFF = 8;
+    private static final int NINTHER_MIN = 40; // below this a ninther costs more compares than it saves
+
+    private final int[] a;
+    private final SortEngine engine;
+    private final Pivot pivot;
+    private final SplittableRandom random;
+
+    HardenedQuickSort(int[] a, OpSink out, Pivot pivot) {
+        this.a = a;
+        this.engine = new SortEngine(a, out);
+        this.pivot = pivot;
+        this.random = new SplittableRandom(0x9E3779B97F4A7C15L ^ a.length);
+    }
+
+    void sort() {
+        int n = a.length;
+        if(n < 2) return;
+        sort(0, n - 1, depthLimit(n));
+        engine.clearPointers();
+    }
+
+    /** Partitions a range of n this many times before heap sort takes over. */
+    static int depthLimit(int n) {
+        return 2 * (31 - Integer.numberOfLeadingZeros(Math.max(1, n)));
+    }
+
+    /** Sorts a[lo..hi] with at most {@code depth} partitions on any path before heap sort. */
+    void sort(int lo, int hi, int depth) {
+        while(hi - lo + 1 > CUTOFF) {
+            if(depth-- == 0) {
+                heapSort(lo, hi);
+                return;
+            }
+            int[] eq = split(lo, hi);
+            int lt = eq[0], gt = eq[1];
+
+            // Recurse into the smaller side, loop on the larger
+            if(lt - lo < hi - gt) {
+                sort(lo, lt - 1, depth);
+                lo = gt + 1;
+            } else {
+                sort(gt + 1, hi, depth);
+                hi = lt - 1;
+            }
+        }
+        if(lo < hi) engine.insertionSort(lo, hi);
+        if(lo <= hi) engine.mark(lo, SortOps.SORTED);
+    }
+
+    /**
+     * One partition step: chooses the pivot, 3-way partitions a[lo..hi]
+     * around it and marks the block of values equal to it sorted. Returns
+     * the bounds of that block; what is left to sort lies on either side.
+     */
+    int[] split(int lo, int hi) {
+        int p = choosePivot(lo, hi);
+        engine.swap(lo, p);
+        engine.mark(lo, SortOps.PIVOT);
+
+        int[] eq = partition(lo, hi);
+        for(int k = eq[0]; k <= eq[1]; k++) engine.mark(k, SortOps.SORTED);
+        engine.clearPointers();
+        return eq;
+    }
+
+    /**
+     * Bentley-McIlroy 3-way partition of a[lo..hi] around the pivot at a[lo].
+     * Scans from both ends like Hoare's partition, parking values equal to
+     * the pivot at either end as it meets them, then swaps those into the
+     * middle. Returns the bounds of the equal block.
+     */
+    private int[] partition(int lo, int hi) {
+        int i = lo, j = hi + 1, p = lo, q = hi + 1;
+        while(true) {
+            int ci, cj;
+            do {
+                engine.pointer(SortOps.PTR_A, SortOps.LBL_I, i + 1);
+                ci = engine.compare(++i, lo);
+            } while(ci < 0 && i != hi);
+            do {
+                engine.pointer(SortOps.PTR_B, SortOps.LBL_J, j - 1);
+                cj = engine.compare(lo, --j);
+            } while(cj < 0 && j != lo);
+            if(i == j && ci == 0) engine.swap(++p, i);
+            if(i >= j) break;
+            engine.swap(i, j);
+            // a[i] and a[j] have traded places, and so have their compare results
+            if(cj == 0) engine.swap(++p, i);
+            if(ci == 0) engine.swap(--q, j);
+        }
+        engine.clearPointers();
+        i = j + 1;
+        for(int k = lo; k <= p; k++) engine.swap(k, j--);
+        for(int k = hi; k >= q; k--) engine.swap(k, i++);
+        return new int[]{j + 1, i - 1};
+    }
+
+    // --- PIVOT CHOICE ---
+
+    private int choosePivot(int lo, int hi) {
+        int n = hi - lo + 1;
+        int mid = (lo + hi) >>> 1;
+        return switch(pivot) {
+            case MEDIAN_OF_3 -> median3(lo, mid, hi);
+            case NINTHER -> {
+                if(n < NINTHER_MIN) yield median3(lo, mid, hi);
+                int s = n / 8;
+                yield median3(median3(lo, lo + s, lo + 2 * s), median3(mid - s, mid, mid + s), median3(hi - 2 * s, hi - s, hi));
+            }
+            case RANDOM -> {
+                int r = lo + random.nextInt(n);
+                engine.pointer(SortOps.PTR_PIVOT, SortOps.LBL_KEY, r);
+                yield r;
+            }
+        };
+    }
+
+    /** Index of the median of a[i], a[j], a[k], found with two or three compares. */
+    private int median3(int i, int j, int k) {
+        engine.pointer(SortOps.PTR_A, SortOps.LBL_I, i);
+        engine.pointer(SortOps.PTR_B, SortOps.LBL_J, j);
+        engine.pointer(SortOps.PTR_PIVOT, SortOps.LBL_KEY, k);
+        if(engine.greater(j, i)) {
+            if(engine.greater(k, j)) return j;
+            return engine.greater(k, i) ? k : i;
+        }
+        if(engine.greater(j, k)) return j;
+        return engine.greater(i, k) ? k : i;
+    }
+
+    // --- HEAP SORT FALLBACK ---
+
+    private void heapSort(int lo, int hi) {
+        int n = hi - lo + 1;
+        engine.pointer(SortOps.PTR_PIVOT, SortOps.LBL_HEAP, lo);
+        for(int k = n / 2 - 1; k >= 0; k--) siftDown(lo, k, n);
+        for(int end = n - 1; end > 0; end--) {
+            engine.swap(lo, lo + end);
+            engine.mark(lo + end, SortOps.SORTED);
+            siftDown(lo, 0, end);
+        }
+        engine.mark(lo, SortOps.SORTED);
+        engine.clearPointers();
+    }
+
+    /** Sifts heap slot {@code k} down a max-heap of {@code n} slots rooted at a[lo]. */
+    private void siftDown(int lo, int k, int n) {
+        while(true) {
+            int c = 2 * k + 1;
+            if(c >= n) return;
+            engine.pointer(SortOps.PTR_A, SortOps.LBL_I, lo + k);
+            if(c + 1 < n && engine.greater(lo + c + 1, lo + c)) c++;
+            engine.pointer(SortOps.PTR_B, SortOps.LBL_J, lo + c);
+            if(!engine.greater(lo + c, lo + k)) return;
+            engine.swap(lo + k, lo + c);
+            k = c;
+        }
+    }
+
+    // --- PROVIDERS ---
+
+    private static final String COMPLEXITY = "Time Complexity: Best: O(n) | Avg: O(n log n) | Worst: O(n log n) via heap sort | Stack: O(log n)";
+
+    public static final class MedianOf3 implements SortAlgorithm {
+        @Override public String name() { return "3-Way Quick Sort (median of 3)"; }
+        @Override public String complexity() { return COMPLEXITY; }
+        @Override public void sort(int[] a, OpSink out) { new HardenedQuickSort(a, out, Pivot.MEDIAN_OF_3).sort(); }
+    }
+
+    public static final class Ninther implements SortAlgorithm {
+        @Override public String name() { return "3-Way Quick Sort (ninther)"; }
+        @Override public String complexity() { return COMPLEXITY; }
+        @Override public void sort(int[] a, OpSink out) { new HardenedQuickSort(a, out, Pivot.NINTHER).sort(); }
+    }
+
+    public static final class RandomPivot implements SortAlgorithm {
+        @Override public String name() { return "3-Way Quick Sort (random)"; }
+        @Override public String complexity() { return COMPLEXITY; }
+        @Override public void sort(int[] a, OpSink out) { new HardenedQuickSort(a, out, Pivot.RANDOM).sort(); }
+    }
+}
@@ -0,0 +1,44 @@
+package neonsort;
+
+import java.util.Random;
+
+/**
+ * Input shapes used when measuring the algorithms.
+ */
+enum InputDistribution {
+    RANDOM,
+    SORTED,
+    REVERSED,
+    FEW_UNIQUE,
+    NEARLY_SORTED;
+
+    /** Deterministic array of {@code n} values with this shape. */
+    int[] generate(int n, long seed) {
+        Random r = new Random(seed);
+        int[] a = new int[n];
+        switch(this) {
+            case RANDOM -> {
+                for(int i = 0; i < n; i++) a[i] = r.nextInt();
+            }
+            case SORTED -> {
+                for(int i = 0; i < n; i++) a[i] = i;
+            }
+            case REVERSED -> {
+                for(int i = 0; i < n; i++) a[i] = n - i;
+            }
+            case FEW_UNIQUE -> {
+                for(int i = 0; i < n; i++) a[i] = r.nextInt(8);
+            }
+            case NEARLY_SORTED -> {
+                // Sorted, then about 1% of the positions swapped with a near neighbour
+                for(int i = 0; i < n; i++) a[i] = i;
+                for(int k = 0; k < n / 100; k++) {
+                    int i = r.nextInt(n);
+                    int j = Math.min(n - 1, i + 1 + r.nextInt(10));
+                    int t = a[i]; a[i] = a[j]; a[j] = t;
+                }
+            }
+        }
+        return a;
+    }
+}
@@ -0,0 +1,91 @@
+package neonsort;
+
+import javax.swing.JComponent;
+import java.awt.*;
+import java.util.Arrays;
+
+import static neonsort.Palette.*;
+
+/**
+ * Heatmap of an {@link AccessProfile}. On the left, one pixel column per
+ * stretch of slots, left to right as in the canvas: reads in the top
+ * stripe, writes in the bottom one, brighter for more accesses on a log
+ * scale. On the right, the reuse-distance histogram in powers of two, with
+ * first touches as the leftmost bar and the simulated cache's capacity
+ * marked, so everything left of the mark would hit in a cache that size.
+ */
+final class LocalityView extends JComponent {
+
+    private static final int HEAT_WIDTH = 256, HIST_WIDTH = 102, GAP = 8, HEIGHT = 30;
+
+    private AccessProfile profile;
+    private final long[] readCols = new long[HEAT_WIDTH], writeCols = new long[HEAT_WIDTH];
+    private double maxCol;
+
+    LocalityView() {
+        setPreferredSize(new Dimension(HEAT_WIDTH + GAP + HIST_WIDTH, HEIGHT));
+        setToolTipText("Left: reads (top) and writes (bottom) per slot. Right: reuse distance in cache lines, "
+                + "first touches, then 0, 1, 2-3, 4-7, ...; the orange mark is the cache capacity");
+    }
+
+    /** Shows a profile, or nothing for null. */
+    void setProfile(AccessProfile p) {
+        profile = p;
+        Arrays.fill(readCols, 0);
+        Arrays.fill(writeCols, 0);
+        maxCol = 0;
+        if(p != null) {
+            int n = p.reads.length;
+            for(int i = 0; i < n; i++) {
+                int c = (int) ((long) i * HEAT_WIDTH / n);
+                readCols[c] += p.reads[i];
+                writeCols[c] += p.writes[i];
+            }
+            for(int c = 0; c < HEAT_WIDTH; c++) maxCol = Math.max(maxCol, Math.max(readCols[c], writeCols[c]));
+        }
+        repaint();
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        g.setColor(BG_COLOR);
+        g.fillRect(0, 0, getWidth(), getHeight());
+        AccessProfile p = profile;
+        if(p == null) return;
+
+        int half = HEIGHT / 2;
+        double scale = Math.log1p(maxCol);
+        for(int c = 0; c < HEAT_WIDTH; c++) {
+            g.setColor(heat(COL_COMPARE, Math.log1p(readCols[c]) / scale));
+            g.fillRect(c, 0, 1, half);
+            g.setColor(heat(COL_PIVOT, Math.log1p(writeCols[c]) / scale));
+            g.fillRect(c, half, 1, HEIGHT - half);
+        }
+
+        int x0 = HEAT_WIDTH + GAP;
+        int bars = AccessProfile.BUCKETS;
+        double barW = (double) HIST_WIDTH / bars;
+        long most = 1;
+        for(long v : p.reuse) most = Math.max(most, v);
+        g.setColor(COL_DEFAULT);
+        for(int k = 0; k < bars; k++) {
+            if(p.reuse[k] == 0) continue;
+            int h = (int) Math.max(1, Math.round(HEIGHT * Math.log1p(p.reuse[k]) / Math.log1p(most)));
+            g.fillRect(x0 + (int) (k * barW), HEIGHT - h, Math.max(1, (int) barW - 1), h);
+        }
+        // Distances below the capacity hit: the mark sits at the start of the capacity's bucket
+        int mark = x0 + (int) (AccessProfile.bucket(p.capacityLines()) * barW);
+        g.setColor(COL_POINTER);
+        g.fillRect(mark, 0, 1, HEIGHT);
+    }
+
+    /** Background blended towards {@code c} by {@code t} in [0, 1]. */
+    private static Color heat(Color c, double t) {
+        if(!(t > 0)) return BG_COLOR;
+        t = Math.min(1, t);
+        return new Color(
+                (int) (BG_COLOR.getRed() + (c.getRed() - BG_COLOR.getRed()) * t),
+                (int) (BG_COLOR.getGreen() + (c.getGreen() - BG_COLOR.getGreen()) * t),
+                (int) (BG_COLOR.getBlue() + (c.getBlue() - BG_COLOR.getBlue()) * t));
+    }
+}
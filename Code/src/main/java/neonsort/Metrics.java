@@ -0,0 +1,147 @@
+package neonsort;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Live throughput of the replay plus the frame-time histogram, sampled by
+ * the animation timer on the EDT. Every sample (twice a second) is kept as
+ * a row of primitives, so a finished run can be exported as CSV or JSON.
+ */
+final class Metrics {
+
+    static final long SAMPLE_NANOS = 500_000_000L;
+
+    final FrameStats frames = new FrameStats();
+
+    private String label = "";
+    private long start;
+    private long lastT, lastCmp, lastSwp;
+    private double cmpRate, swpRate;
+
+    // Samples: time since start, counters, blocked/busy sorter time (all nanos except counters)
+    private long[] t = new long[64], cmp = new long[64], swp = new long[64], blocked = new long[64], busy = new long[64];
+    private int size;
+
+    /** Starts a new series for the given run label ("Merge Sort", "Race: 7 lanes", ...). */
+    void reset(String label, long now) {
+        this.label = label;
+        start = lastT = now;
+        lastCmp = lastSwp = 0;
+        cmpRate = swpRate = 0;
+        size = 0;
+        frames.reset();
+    }
+
+    /**
+     * Offers the current totals. Rates are updated and a row is kept at
+     * most once per {@link #SAMPLE_NANOS}; returns true when that happened.
+     */
+    boolean sample(long now, long comparisons, long swaps, long blockedNanos, long busyNanos) {
+        long dt = now - lastT;
+        if(dt < SAMPLE_NANOS) return false;
+        cmpRate = (comparisons - lastCmp) * 1e9 / dt;
+        swpRate = (swaps - lastSwp) * 1e9 / dt;
+        lastT = now;
+        lastCmp = comparisons;
+        lastSwp = swaps;
+
+        if(size == t.length) {
+            int cap = size * 2;
+            t = Arrays.copyOf(t, cap);
+            cmp = Arrays.copyOf(cmp, cap);
+            swp = Arrays.copyOf(swp, cap);
+            blocked = Arrays.copyOf(blocked, cap);
+            busy = Arrays.copyOf(busy, cap);
+        }
+        t[size] = now - start;
+        cmp[size] = comparisons;
+        swp[size] = swaps;
+        blocked[size] = blockedNanos;
+        busy[size] = busyNanos;
+        size++;
+        return true;
+    }
+
+    double comparisonsPerSec() { return cmpRate; }
+    double swapsPerSec() { return swpRate; }
+    int samples() { return size; }
+
+    /** Share of the sorter's time so far spent working rather than sleeping or waiting on physics. */
+    double busyShare() {
+        if(size == 0) return 0;
+        long total = blocked[size - 1] + busy[size - 1];
+        return total == 0 ? 0 : (double) busy[size - 1] / total;
+    }
+
+    /** One-line summary for the stats panel. */
+    String summary() {
+        return String.format(Locale.ROOT,
+                "%,.0f cmp/s   %,.0f swp/s   |   sorter busy %.0f%% / blocked %.0f%%   |   frame p50 %.1f ms  p99 %.1f ms  max %.1f ms",
+                cmpRate, swpRate, busyShare() * 100, size == 0 ? 0 : (1 - busyShare()) * 100,
+                frames.percentile(0.50) / 1e6, frames.percentile(0.99) / 1e6, frames.max() / 1e6);
+    }
+
+    // --- EXPORT ---
+
+    /** Writes JSON if the file name ends in .json, CSV otherwise. */
+    void export(Path file) throws IOException {
+        if(file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".json")) writeJson(file);
+        else writeCsv(file);
+    }
+
+    void writeCsv(Path file) throws IOException {
+        try(BufferedWriter w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            w.write("# " + label.replace('\n', ' ') + "\n");
+            w.write(String.format(Locale.ROOT, "# frames %d, p50 %.3f ms, p99 %.3f ms, max %.3f ms%n",
+                    frames.count(), frames.percentile(0.50) / 1e6, frames.percentile(0.99) / 1e6, frames.max() / 1e6));
+            w.write("time_ms,comparisons,swaps,comparisons_per_sec,swaps_per_sec,blocked_ms,busy_ms\n");
+            for(int k = 0; k < size; k++) {
+                w.write(String.format(Locale.ROOT, "%.1f,%d,%d,%.1f,%.1f,%.1f,%.1f%n",
+                        t[k] / 1e6, cmp[k], swp[k], rate(cmp, k), rate(swp, k), blocked[k] / 1e6, busy[k] / 1e6));
+            }
+        }
+    }
+
+    void writeJson(Path file) throws IOException {
+        try(BufferedWriter w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            w.write("{\n  \"run\": \"" + jsonEscape(label) + "\",\n");
+            w.write(String.format(Locale.ROOT,
+                    "  \"frames\": {\"count\": %d, \"meanMs\": %.3f, \"p50Ms\": %.3f, \"p99Ms\": %.3f, \"maxMs\": %.3f,%n",
+                    frames.count(), frames.mean() / 1e6, frames.percentile(0.50) / 1e6,
+                    frames.percentile(0.99) / 1e6, frames.max() / 1e6));
+            w.write(String.format(Locale.ROOT, "    \"bucketMs\": %.1f, \"histogram\": {", FrameStats.BUCKET_NANOS / 1e6));
+            boolean first = true;
+            for(int b = 0; b < frames.buckets(); b++) {
+                if(frames.bucket(b) == 0) continue;
+                w.write((first ? "" : ", ") + "\"" + b + "\": " + frames.bucket(b));
+                first = false;
+            }
+            w.write("}},\n  \"samples\": [");
+            for(int k = 0; k < size; k++) {
+                w.write(String.format(Locale.ROOT,
+                        "%s%n    {\"timeMs\": %.1f, \"comparisons\": %d, \"swaps\": %d, \"comparisonsPerSec\": %.1f, "
+                                + "\"swapsPerSec\": %.1f, \"blockedMs\": %.1f, \"busyMs\": %.1f}",
+                        k == 0 ? "" : ",", t[k] / 1e6, cmp[k], swp[k], rate(cmp, k), rate(swp, k),
+                        blocked[k] / 1e6, busy[k] / 1e6));
+            }
+            w.write("\n  ]\n}\n");
+        }
+    }
+
+    private double rate(long[] counter, int k) {
+        long prevT = k == 0 ? 0 : t[k - 1];
+        long prev = k == 0 ? 0 : counter[k - 1];
+        long dt = t[k] - prevT;
+        return dt <= 0 ? 0 : (counter[k] - prev) * 1e9 / dt;
+    }
+
+    private static String jsonEscape(String s) {
+        return s.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}
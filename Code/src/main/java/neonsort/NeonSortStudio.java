@@ -0,0 +1,1823 @@
+package neonsort;
+
+import javax.swing.*;
+import javax.swing.border.CompoundBorder;
+import javax.swing.border.EmptyBorder;
+import javax.swing.border.LineBorder;
+import javax.swing.filechooser.FileFilter;
+import java.awt.*;
+import java.awt.event.*;
+import java.awt.geom.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static neonsort.Palette.*;
+
+public class NeonSortStudio extends JFrame {
+
+    // --- CONFIGURATION ---
+    private static final int WIDTH = 1300;
+    private static final int HEIGHT = 900; // Slightly taller for stats
+    private static final int FPS = 60;
+    private static final String RACE_ALL = "All Algorithms";
+    private static final int MIN_LANE_HEIGHT = 140;
+    private static final int EXPORT_FPS = 30;
+    private static final double EXPORT_SECONDS = 20;
+
+    // --- STATE ---
+    private final SortRun.Control control = new SortRun.Control() {
+        @Override public boolean running() { return isSorting; }
+        @Override public void awaitOp() { gate.awaitOp(); }
+        @Override public void checkPaused() { gate.await(); }
+        @Override public int delayMs() { return delayMs; }
+        @Override public ViewMode viewMode() { return viewMode; }
+    };
+    private final SortRun main = new SortRun("Merge Sort", control, true);
+    private final NodeStore nodes = main.nodes;
+    private final Pointers pointers = main.pointers;
+
+    // Race mode: one lane per concurrent run, empty outside a race
+    private record Lane(SortRun run, CanvasPainter painter) {}
+    private volatile List<Lane> lanes = List.of();
+    private int laneHeight = MIN_LANE_HEIGHT;
+
+    private JPanel cardPanel;
+    private CardLayout cardLayout;
+    private CanvasPanel canvas;
+    private JScrollPane scrollPane;
+    private JButton pauseBtn;
+    private JComboBox<String> algoBox;
+    private JComboBox<String> raceBox;
+
+    // STATS LABELS
+    private JLabel compLabel;
+    private JLabel swapLabel;
+    private JLabel complexityLabel;
+    private JLabel metricsLabel;
+
+    private volatile boolean isSorting = false;
+    private final PauseGate gate = new PauseGate();
+
+    // Sort runs: the main view's one at a time, so a new run waits for the last to return
+    private final SortTasks sorter = SortTasks.serial("sorter");
+    private final SortTasks racers = SortTasks.pooled("race");
+    private final SortTasks exports = SortTasks.pooled("export");
+    private SortTasks.Task sortTask;                        // EDT only
+    private List<SortTasks.Task> raceTasks = List.of();     // EDT only
+    private boolean pendingPlay;                            // Play pressed while the last run was still stopping, EDT only
+
+    private String currentAlgo = "Merge Sort";
+    private volatile ViewMode viewMode = ViewMode.NODES;
+    private volatile int delayMs = 300;
+    private double physicsSpeed = 0.15;
+    private volatile boolean turbo = false;
+
+    // Turbo playbacks being stepped by the timer, EDT only
+    private final List<TurboPlayback> turbos = new ArrayList<>();
+    private long lastPaintNanos;
+
+    // Counters last shown in the stats panel
+    private long shownComparisons = 0;
+    private long shownSwaps = 0;
+
+    // Throughput and frame-time metrics of the current (or last) run, EDT only
+    private final Metrics metrics = new Metrics();
+    private boolean metricsLive;
+
+    // Last Recorded Run (kept for "Save Trace")
+    private long inputSeed = 0;
+    private volatile boolean loading; // a data file is being read
+    private volatile int[] lastInput;
+    private volatile OpBuffer lastOps;
+    private volatile String lastAlgo;
+    private volatile long lastSeed;
+
+    // Last record sort, kept for "Save Records"
+    private volatile RecordTable records;
+    private volatile int[] recordOrder;
+
+    // Checkpoints of the main view's last run, behind the timeline scrubber
+    private volatile Timeline timeline;
+    private volatile boolean replaying; // the main view's replay thread is still alive
+    private long pendingSeek = -1;      // where to go once that thread has stopped, EDT only
+    private JSlider scrubber;
+    private JLabel scrubLabel;
+    private boolean syncingScrubber;
+    private long shownCursor = -1, shownReach = -1;
+
+    // Memory-access analysis of the last run, EDT only
+    private JToggleButton localityBtn;
+    private JComboBox<String> lineBox, cacheBox;
+    private LocalityView localityView;
+    private JLabel localityLabel;
+    private int localityRequest; // only the latest analysis gets shown
+
+    // Startup: the main screen is built once the intro is on screen, and the
+    // animation timer only runs while the main screen shows something moving
+    private static final String STARTUP_PROBE = System.getProperty("neonsort.startup"); // "log" or "exit"
+    private static final int IDLE_TICKS = FPS / 2;
+    private Timer timer;
+    private boolean appShown;   // the main screen is the visible card, EDT only
+    private boolean introPainted;
+    private int idleTicks;      // frames in a row without anything to draw, EDT only
+
+    public NeonSortStudio() {
+        setTitle("Sorting Algorithm Visualizer");
+        setSize(WIDTH, HEIGHT);
+        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        setLocationRelativeTo(null);
+
+        cardLayout = new CardLayout();
+        cardPanel = new JPanel(cardLayout);
+        add(cardPanel);
+
+        // 1. Intro Screen; the main screen follows after its first frame
+        cardPanel.add(createIntroScreen(), "INTRO");
+
+        // No frames while minimized
+        addWindowListener(new WindowAdapter() {
+            @Override public void windowIconified(WindowEvent e) { if(timer != null) timer.stop(); }
+            @Override public void windowDeiconified(WindowEvent e) { wake(); }
+        });
+
+        // Load what the main screen needs off the EDT while the intro paints
+        VirtualThreads.start("preload", NeonSortStudio::preload);
+    }
+
+    /** Class loading and service lookup the main screen would otherwise do on the EDT. */
+    private static void preload() {
+        SortAlgorithms.names();
+        try {
+            Class.forName(UIManager.getSystemLookAndFeelClassName());
+        } catch(ClassNotFoundException | LinkageError ignored) {
+            // setLookAndFeel reports nothing either
+        }
+    }
+
+    /**
+     * Builds the main screen, once: right after the intro's first frame, or
+     * when Start is pressed before that. The system look and feel is applied
+     * here rather than before the window opens, so the intro is not kept
+     * waiting for it.
+     */
+    private void ensureApp() {
+        if(timer != null) return;
+        try { UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName()); } catch(Exception e){}
+        SwingUtilities.updateComponentTreeUI(this);
+
+        // 2. Main App Screen
+        JPanel mainApp = new JPanel(new BorderLayout());
+        mainApp.add(createControlPanel(), BorderLayout.NORTH);
+
+        canvas = new CanvasPanel();
+        canvas.setPreferredSize(new Dimension(WIDTH, HEIGHT));
+
+        scrollPane = new JScrollPane(canvas);
+        scrollPane.setBorder(null);
+        scrollPane.getVerticalScrollBar().setUnitIncrement(16);
+        scrollPane.getHorizontalScrollBar().setUnitIncrement(16);
+        scrollPane.setHorizontalScrollBarPolicy(ScrollPaneConstants.HORIZONTAL_SCROLLBAR_AS_NEEDED);
+        scrollPane.setVerticalScrollBarPolicy(ScrollPaneConstants.VERTICAL_SCROLLBAR_AS_NEEDED);
+        scrollPane.getViewport().setBackground(BG_COLOR);
+
+        mainApp.add(scrollPane, BorderLayout.CENTER);
+
+        // ADDED STATS PANEL HERE
+        mainApp.add(createStatsPanel(), BorderLayout.SOUTH);
+
+        cardPanel.add(mainApp, "APP");
+
+        // Initialize Complexity Text
+        updateComplexityText();
+
+        // Animation Loop
+        // One render clock for the main run and every race lane; started when the main screen shows
+        timer = new Timer(1000 / FPS, e -> tick());
+        startupMark("main screen built");
+    }
+
+    private void showApp() {
+        ensureApp();
+        cardLayout.show(cardPanel, "APP");
+        appShown = true;
+        addRandomNodes(20);
+        wake();
+    }
+
+    private void tick() {
+        stepTurbo();
+        nodes.update(physicsSpeed);
+        for(Lane lane : lanes) lane.run().nodes.update(physicsSpeed);
+        boolean drawn = canvas.repaintChanged();
+        updateStatsUI(); // Update numbers every frame
+        if(drawn || busy()) idleTicks = 0;
+        else if(++idleTicks >= IDLE_TICKS) timer.stop(); // until wake()
+    }
+
+    /** Whether a frame can change without anything calling {@link #wake}: a run, a glide or an index in progress. */
+    private boolean busy() {
+        if((isSorting || replaying || !turbos.isEmpty() || metricsLive) && !gate.isPaused()) return true;
+        if(nodes.inFlight()) return true;
+        for(Lane lane : lanes) if(lane.run().nodes.inFlight()) return true;
+        Timeline t = timeline;
+        return t != null && !t.isBuilt();
+    }
+
+    /** Restarts the animation timer after it went idle; callable from any thread. */
+    private void wake() {
+        if(!SwingUtilities.isEventDispatchThread()) {
+            SwingUtilities.invokeLater(this::wake);
+            return;
+        }
+        idleTicks = 0;
+        if(appShown && timer != null && !timer.isRunning() && (getExtendedState() & ICONIFIED) == 0) timer.start();
+    }
+
+    private JPanel createStatsPanel() {
+        JPanel container = new JPanel(new GridLayout(5, 1)); // 5 Rows
+        container.setBackground(PANEL_COLOR);
+        container.setBorder(BorderFactory.createMatteBorder(1, 0, 0, 0, BORDER_COLOR));
+
+        // Row 1: Real-time Counters
+        JPanel countersPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 60, 10));
+        countersPanel.setOpaque(false);
+
+        compLabel = new JLabel("Comparisons: 0");
+        compLabel.setFont(new Font("Monospaced", Font.BOLD, 20));
+        compLabel.setForeground(COL_COMPARE); // Bright Cyan
+
+        swapLabel = new JLabel("Swaps: 0");
+        swapLabel.setFont(new Font("Monospaced", Font.BOLD, 20));
+        swapLabel.setForeground(COL_PIVOT);   // Bright Pink
+
+        countersPanel.add(compLabel);
+        countersPanel.add(swapLabel);
+
+        // Row 2: Complexity Info
+        JPanel complexityPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
+        complexityPanel.setOpaque(false);
+
+        complexityLabel = new JLabel("Time Complexity: O(n log n)");
+        complexityLabel.setFont(new Font("Segoe UI", Font.PLAIN, 16));
+        complexityLabel.setForeground(COL_DEFAULT);
+
+        complexityPanel.add(complexityLabel);
+
+        // Row 3: Memory Locality
+        JPanel localityPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 10, 4));
+        localityPanel.setOpaque(false);
+
+        localityBtn = new JToggleButton("Locality");
+        styleButton(localityBtn, COL_POINTER);
+        localityBtn.setToolTipText("Profile every array access of the last run against a simulated cache");
+        localityBtn.addActionListener(e -> analyzeLocality());
+
+        lineBox = new JComboBox<>(new String[]{"16 B", "32 B", "64 B", "128 B"});
+        lineBox.setSelectedItem("64 B");
+        styleComponent(lineBox);
+        lineBox.setToolTipText("Cache line size");
+        lineBox.addActionListener(e -> analyzeLocality());
+
+        cacheBox = new JComboBox<>(new String[]{"4 KB", "32 KB", "256 KB", "1 MB", "8 MB"});
+        cacheBox.setSelectedItem("32 KB");
+        styleComponent(cacheBox);
+        cacheBox.setToolTipText("Cache capacity (8-way set associative, LRU)");
+        cacheBox.addActionListener(e -> analyzeLocality());
+
+        localityView = new LocalityView();
+        localityLabel = new JLabel(" ");
+        localityLabel.setFont(new Font("Monospaced", Font.PLAIN, 13));
+        localityLabel.setForeground(COL_DEFAULT);
+
+        localityPanel.add(localityBtn);
+        localityPanel.add(new JLabel("Line:") {{ setForeground(COL_DEFAULT); }});
+        localityPanel.add(lineBox);
+        localityPanel.add(new JLabel("Cache:") {{ setForeground(COL_DEFAULT); }});
+        localityPanel.add(cacheBox);
+        localityPanel.add(localityView);
+        localityPanel.add(localityLabel);
+
+        // Row 4: Live Metrics
+        JPanel metricsPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 15, 4));
+        metricsPanel.setOpaque(false);
+
+        metricsLabel = new JLabel(metrics.summary());
+        metricsLabel.setFont(new Font("Monospaced", Font.PLAIN, 13));
+        metricsLabel.setForeground(COL_DEFAULT);
+
+        JButton exportBtn = new JButton("Export Metrics");
+        styleButton(exportBtn, COL_DEFAULT);
+        exportBtn.addActionListener(e -> exportMetrics());
+
+        JButton benchBtn = new JButton("Benchmark");
+        styleButton(benchBtn, COL_DEFAULT);
+        benchBtn.setToolTipText("Measure the selected algorithm on growing inputs and check its complexity label");
+        benchBtn.addActionListener(e -> openBenchmark());
+
+        metricsPanel.add(metricsLabel);
+        metricsPanel.add(exportBtn);
+        metricsPanel.add(benchBtn);
+
+        // Row 5: Timeline
+        JPanel timelinePanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 15, 4));
+        timelinePanel.setOpaque(false);
+
+        scrubber = new JSlider(0, 0, 0);
+        scrubber.setOpaque(false);
+        scrubber.setPreferredSize(new Dimension(700, 24));
+        scrubber.setEnabled(false);
+        scrubber.setToolTipText("Drag to any step of the last run; Play carries on from there");
+        scrubber.addChangeListener(e -> {
+            if(!syncingScrubber) scrubTo(scrubber.getValue() * scrubScale(timeline));
+        });
+
+        JTextField stepField = new JTextField(9);
+        styleComponent(stepField);
+        stepField.setToolTipText("Jump to an operation number of the last run");
+        stepField.addActionListener(e -> {
+            try {
+                scrubTo(Long.parseLong(stepField.getText().trim().replace(",", "")));
+            } catch(NumberFormatException ex) {
+                JOptionPane.showMessageDialog(this, "Please enter an operation number.");
+            }
+        });
+
+        scrubLabel = new JLabel("No run recorded");
+        scrubLabel.setFont(new Font("Monospaced", Font.PLAIN, 13));
+        scrubLabel.setForeground(COL_DEFAULT);
+
+        timelinePanel.add(new JLabel("Timeline:") {{ setForeground(COL_DEFAULT); }});
+        timelinePanel.add(scrubber);
+        timelinePanel.add(stepField);
+        timelinePanel.add(scrubLabel);
+
+        container.add(countersPanel);
+        container.add(complexityPanel);
+        container.add(localityPanel);
+        container.add(metricsPanel);
+        container.add(timelinePanel);
+
+        return container;
+    }
+
+    private void updateStatsUI() {
+        // Only rebuild the label strings when a counter actually moved
+        long now = System.nanoTime();
+        long c = 0, s = 0, blocked = 0, busy = 0;
+        List<Lane> race = lanes;
+        if(race.isEmpty()) {
+            c = main.comparisons.sum();
+            s = main.swaps.sum();
+            blocked = main.blockedNanos.sum();
+            busy = main.busyNanos(now);
+        }
+        for(Lane lane : race) {
+            SortRun run = lane.run();
+            c += run.comparisons.sum();
+            s += run.swaps.sum();
+            blocked += run.blockedNanos.sum();
+            busy += run.busyNanos(now);
+        }
+        if(c != shownComparisons) {
+            shownComparisons = c;
+            compLabel.setText("Comparisons: " + c);
+        }
+        if(s != shownSwaps) {
+            shownSwaps = s;
+            swapLabel.setText("Swaps: " + s);
+        }
+
+        // Sample while running, plus once more after the run ends so the rates drop to their final value
+        boolean live = isSorting;
+        if((live || metricsLive) && metrics.sample(now, c, s, blocked, busy)) {
+            metricsLabel.setText(metrics.summary());
+            metricsLive = live;
+        }
+        syncScrubber();
+    }
+
+    /** Moves the scrubber along with the main run and shows how far the checkpoints reach. */
+    private void syncScrubber() {
+        Timeline t = timeline;
+        if(t == null || scrubber.getValueIsAdjusting()) return;
+        long at = main.cursor(), reach = t.reach();
+        if(at == shownCursor && reach == shownReach) return;
+        shownCursor = at;
+        shownReach = reach;
+
+        long scale = scrubScale(t);
+        syncingScrubber = true;
+        scrubber.setEnabled(lanes.isEmpty());
+        scrubber.setMaximum((int) (t.size() / scale));
+        scrubber.setValue((int) (at / scale));
+        syncingScrubber = false;
+        String indexing = t.isBuilt() ? "" : String.format("  (indexing %d%%)", reach * 100 / Math.max(1, t.size()));
+        scrubLabel.setText(String.format("Step %,d / %,d%s", at, t.size(), indexing));
+    }
+
+    /** Ops per scrubber tick: one, unless a trace has more ops than a slider can count. */
+    private static long scrubScale(Timeline t) {
+        return t == null ? 1 : Math.max(1, (t.size() + Integer.MAX_VALUE - 1) / Integer.MAX_VALUE);
+    }
+
+    /**
+     * Puts the main view at op {@code op} of the last run. A run that is
+     * still playing is stopped first and the seek happens once its replay
+     * thread is gone.
+     */
+    private void scrubTo(long op) {
+        Timeline t = timeline;
+        if(t == null || !lanes.isEmpty()) return;
+        if(replaying) {
+            pendingSeek = op;
+            stopSorting();
+            return;
+        }
+        arrangeNodesLinearly(); // back on one line, so the snapshot's lifted pivot is the only one raised
+        t.seek(main, op);
+        shownCursor = -1;
+    }
+
+    private void replayStopped() {
+        long op = pendingSeek;
+        pendingSeek = -1;
+        if(op >= 0) scrubTo(op);
+        if(pendingPlay) {
+            pendingPlay = false;
+            startSorting();
+        }
+    }
+
+    /** Profiles the last run's array accesses off the EDT with the chosen cache, then shows the heatmap. */
+    private void analyzeLocality() {
+        Timeline t = timeline;
+        int request = ++localityRequest;
+        if(!localityBtn.isSelected() || t == null) {
+            localityView.setProfile(null);
+            localityLabel.setText(localityBtn.isSelected() ? "Run a sort to profile it" : " ");
+            return;
+        }
+        int line = parseBytes((String) lineBox.getSelectedItem());
+        int cache = parseBytes((String) cacheBox.getSelectedItem());
+        int n = nodes.size();
+        localityLabel.setText("Profiling " + t.algorithm() + "...");
+        VirtualThreads.start("locality: " + t.algorithm(), () -> {
+            AccessProfile p = AccessProfile.of(t.ops(), n, line, cache);
+            SwingUtilities.invokeLater(() -> {
+                if(request != localityRequest) return;
+                localityView.setProfile(p);
+                localityLabel.setText(p.summary());
+            });
+        });
+    }
+
+    /** "64 B", "32 KB", "8 MB" to bytes. */
+    private static int parseBytes(String s) {
+        String[] parts = s.split(" ");
+        int v = Integer.parseInt(parts[0]);
+        return switch(parts[1]) {
+            case "KB" -> v << 10;
+            case "MB" -> v << 20;
+            default -> v;
+        };
+    }
+
+    /** Forgets the last run's checkpoints once the input they belong to is gone. */
+    private void dropTimeline() {
+        Timeline t = timeline;
+        timeline = null;
+        pendingSeek = -1;
+        if(t != null) {
+            try { t.close(); } catch(IOException ignored) {}
+        }
+        syncingScrubber = true;
+        scrubber.setEnabled(false);
+        scrubber.setValue(0);
+        syncingScrubber = false;
+        scrubLabel.setText("No run recorded");
+        shownCursor = shownReach = -1;
+        analyzeLocality();
+    }
+
+    /** Applies this frame's batch of every turbo playback; large batches snap their nodes into place. */
+    private void stepTurbo() {
+        if(turbos.isEmpty()) return;
+        if(gate.isPaused()) {
+            if(gate.takeStep()) turbos.removeIf(t -> !t.step());
+            return;
+        }
+        int share = turbos.size();
+        int cap = turboCap();
+        for(Iterator<TurboPlayback> it = turbos.iterator(); it.hasNext(); ) {
+            TurboPlayback t = it.next();
+            if(!t.tick(lastPaintNanos, share, cap)) it.remove();
+            if(t.snaps()) t.run().nodes.update(1.0);
+        }
+    }
+
+    /** Speed slider in turbo mode: doubles the ops-per-frame cap every 50 steps, from 1 up to about a million. */
+    private int turboCap() {
+        int slider = 1010 - delayMs;
+        return (int) Math.min(TurboPlayback.MAX_K, Math.pow(2, slider / 50.0));
+    }
+
+    /** Hands a recorded run to the animation timer and waits until it has been played. */
+    private void playTurbo(SortRun run, OpSource ops) throws InterruptedException {
+        TurboPlayback t = new TurboPlayback(run, ops);
+        SwingUtilities.invokeLater(() -> {
+            turbos.add(t);
+            wake();
+        });
+        try {
+            t.awaitDone();
+        } catch(InterruptedException e) {
+            t.cancel();
+            throw e;
+        }
+    }
+
+    private void startMetrics(String label) {
+        metrics.reset(label, System.nanoTime());
+        metricsLive = true;
+        wake();
+    }
+
+    private void exportMetrics() {
+        if(metrics.samples() == 0) {
+            JOptionPane.showMessageDialog(this, "Run a sort first, then export its metrics.");
+            return;
+        }
+        JFileChooser chooser = new JFileChooser();
+        chooser.setSelectedFile(new File("metrics.csv"));
+        chooser.setToolTipText("Name the file .json for JSON, anything else for CSV");
+        if(chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        try {
+            metrics.export(chooser.getSelectedFile().toPath());
+        } catch(IOException ex) {
+            JOptionPane.showMessageDialog(this, "Could not export metrics: " + ex.getMessage());
+        }
+    }
+
+    /** Runs the empirical benchmark for the selected algorithm in a window of its own; closing it stops the run. */
+    private void openBenchmark() {
+        String algo = currentAlgo;
+        JTextArea text = new JTextArea(30, 110);
+        text.setEditable(false);
+        text.setFont(new Font("Monospaced", Font.PLAIN, 12));
+        text.setBackground(BG_COLOR);
+        text.setForeground(COL_TEXT_BRIGHT);
+
+        JDialog dialog = new JDialog(this, "Benchmark: " + algo, false);
+        dialog.add(new JScrollPane(text));
+        dialog.pack();
+        dialog.setLocationRelativeTo(this);
+        dialog.setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
+
+        EmpiricalBenchmark bench = new EmpiricalBenchmark(EmpiricalBenchmark.DEFAULT_MAX_SIZE, EmpiricalBenchmark.DEFAULT_TRIALS,
+                line -> SwingUtilities.invokeLater(() -> text.append(line + "\n")));
+        dialog.addWindowListener(new WindowAdapter() {
+            @Override public void windowClosed(WindowEvent e) { bench.cancel(); }
+        });
+        dialog.setVisible(true);
+        bench.start(List.of(algo), () -> SwingUtilities.invokeLater(() -> text.append("\nDone.\n")));
+    }
+
+    private void updateComplexityText() {
+        complexityLabel.setText(SortAlgorithms.get(currentAlgo).complexity());
+    }
+
+    private JPanel createIntroScreen() {
+        JPanel p = new JPanel() {
+            @Override
+            protected void paintComponent(Graphics g) {
+                super.paintComponent(g);
+                Graphics2D g2 = (Graphics2D) g;
+                g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+                g2.setColor(BG_COLOR);
+                g2.fillRect(0, 0, getWidth(), getHeight());
+
+                g2.setColor(Color.WHITE);
+                g2.setFont(new Font("Segoe UI", Font.BOLD, 52));
+                String title = "SORTING ALGORITHM VISUALIZER";
+                FontMetrics fm = g2.getFontMetrics();
+                g2.drawString(title, (getWidth() - fm.stringWidth(title))/2, getHeight()/2 - 60);
+
+                g2.setFont(new Font("Segoe UI Light", Font.PLAIN, 28));
+                g2.setColor(COL_COMPARE);
+                String mainHeading = "SORTING";
+                g2.drawString(mainHeading, (getWidth() - g2.getFontMetrics().stringWidth(mainHeading))/2, getHeight()/2);
+
+                g2.setFont(new Font("Segoe UI", Font.PLAIN, 16));
+                g2.setColor(COL_DEFAULT);
+                String presentedBy = "Presented by: Saifullah Khan Jadoon ";
+                g2.drawString(presentedBy, (getWidth() - g2.getFontMetrics().stringWidth(presentedBy))/2, getHeight()/2 + 60);
+
+                if(!introPainted) {
+                    introPainted = true;
+                    startupMark("first frame");
+                    SwingUtilities.invokeLater(NeonSortStudio.this::ensureApp);
+                }
+            }
+        };
+        p.setLayout(null);
+
+        JButton enterBtn = new JButton("START VISUALIZATION");
+        styleButton(enterBtn, COL_SORTED);
+        enterBtn.setBounds((WIDTH/2)-120, (HEIGHT/2)+120, 240, 50);
+        enterBtn.addActionListener(e -> showApp());
+
+        p.add(enterBtn);
+        return p;
+    }
+
+    private JPanel createControlPanel() {
+        JPanel container = new JPanel(new GridLayout(2, 1));
+        container.setBackground(PANEL_COLOR);
+        container.setBorder(BorderFactory.createMatteBorder(0, 0, 1, 0, BORDER_COLOR));
+
+        JPanel row1 = new JPanel(new FlowLayout(FlowLayout.CENTER, 15, 10));
+        row1.setOpaque(false);
+
+        algoBox = new JComboBox<>(SortAlgorithms.names().toArray(new String[0]));
+        styleComponent(algoBox);
+        algoBox.addActionListener(e -> {
+            currentAlgo = (String) algoBox.getSelectedItem();
+            updateComplexityText(); // Update info when algo changes
+        });
+
+        JSlider speedSlider = new JSlider(10, 1000, 300);
+        speedSlider.setOpaque(false);
+        speedSlider.setPreferredSize(new Dimension(150, 30));
+        speedSlider.addChangeListener(e -> delayMs = 1010 - speedSlider.getValue());
+
+        JToggleButton turboBtn = new JToggleButton("Turbo");
+        styleButton(turboBtn, new Color(255, 220, 90));
+        turboBtn.setToolTipText("Apply as many operations per frame as 60 FPS allows (Speed sets the upper limit)");
+        turboBtn.addActionListener(e -> turbo = turboBtn.isSelected());
+
+        JToggleButton viewBtn = new JToggleButton("View: NODES");
+        styleButton(viewBtn, COL_COMPARE);
+        viewBtn.addActionListener(e -> {
+            viewMode = viewBtn.isSelected() ? ViewMode.BARS : ViewMode.NODES;
+            viewBtn.setText(viewBtn.isSelected() ? "View: BARS" : "View: NODES");
+            if(lanes.isEmpty()) arrangeNodesLinearly();
+            else arrangeLanes();
+        });
+
+        JButton startBtn = new JButton("Play");
+        styleButton(startBtn, COL_SORTED);
+        startBtn.addActionListener(e -> startSorting());
+
+        pauseBtn = new JButton("Pause");
+        styleButton(pauseBtn, new Color(255, 160, 60));
+        pauseBtn.addActionListener(e -> togglePause());
+
+        JButton stepBtn = new JButton("Step");
+        styleButton(stepBtn, new Color(255, 160, 60));
+        stepBtn.setToolTipText("Apply exactly one operation, then stay paused");
+        stepBtn.addActionListener(e -> step());
+
+        raceBox = new JComboBox<>(new String[]{RACE_ALL, "4 Inputs", "8 Inputs", "16 Inputs", "32 Inputs"});
+        styleComponent(raceBox);
+        raceBox.setToolTipText("Race every algorithm on one input, or the selected algorithm on N random inputs");
+
+        JButton raceBtn = new JButton("Race");
+        styleButton(raceBtn, COL_COMPARE);
+        raceBtn.addActionListener(e -> startRace());
+
+        JButton resetBtn = new JButton("Reset");
+        styleButton(resetBtn, new Color(230, 80, 80));
+        resetBtn.addActionListener(e -> fullReset());
+
+        row1.add(new JLabel("Algorithm:") {{ setForeground(COL_DEFAULT); }});
+        row1.add(algoBox);
+        row1.add(new JLabel(" Speed:") {{ setForeground(COL_DEFAULT); }});
+        row1.add(speedSlider);
+        row1.add(turboBtn);
+        row1.add(Box.createHorizontalStrut(15));
+        row1.add(viewBtn);
+        row1.add(Box.createHorizontalStrut(15));
+        row1.add(startBtn);
+        row1.add(pauseBtn);
+        row1.add(stepBtn);
+        row1.add(resetBtn);
+        row1.add(Box.createHorizontalStrut(15));
+        row1.add(raceBox);
+        row1.add(raceBtn);
+
+        JPanel row2 = new JPanel(new FlowLayout(FlowLayout.CENTER, 15, 10));
+        row2.setOpaque(false);
+        row2.setBorder(BorderFactory.createMatteBorder(1, 0, 0, 0, BORDER_COLOR));
+
+        JTextField inputField = new JTextField(15);
+        styleComponent(inputField);
+        inputField.setToolTipText("e.g. 10, 50, 33");
+
+        JButton addBtn = new JButton("+ Add");
+        styleButton(addBtn, COL_DEFAULT);
+        addBtn.addActionListener(e -> parseAndAddInput(inputField.getText()));
+
+        JSpinner randCountSpin = new JSpinner(new SpinnerNumberModel(20, 5, 1_000_000, 1));
+        styleComponent((JComponent) randCountSpin.getEditor());
+        ((JSpinner.DefaultEditor)randCountSpin.getEditor()).getTextField().setBackground(PANEL_COLOR.darker());
+        ((JSpinner.DefaultEditor)randCountSpin.getEditor()).getTextField().setForeground(Color.WHITE);
+        randCountSpin.setPreferredSize(new Dimension(90, 25));
+
+        JButton randBtn = new JButton("Randomize");
+        styleButton(randBtn, COL_DEFAULT);
+        randBtn.addActionListener(e -> {
+            if(!isSorting) {
+                leaveRace();
+                nodes.clear();
+                addRandomNodes((Integer) randCountSpin.getValue());
+            }
+        });
+
+        JButton clearBtn = new JButton("Clear");
+        styleButton(clearBtn, COL_DEFAULT);
+        clearBtn.addActionListener(e -> {
+            if(!isSorting) {
+                leaveRace();
+                dropTimeline();
+                nodes.clear();
+                canvas.repaint();
+                arrangeNodesLinearly();
+            }
+        });
+
+        JButton saveTraceBtn = new JButton("Save Trace");
+        styleButton(saveTraceBtn, COL_DEFAULT);
+        saveTraceBtn.addActionListener(e -> saveTrace());
+
+        JButton openTraceBtn = new JButton("Open Trace");
+        styleButton(openTraceBtn, COL_DEFAULT);
+        openTraceBtn.addActionListener(e -> openTrace());
+
+        JButton exportVideoBtn = new JButton("Export Video");
+        styleButton(exportVideoBtn, COL_DEFAULT);
+        exportVideoBtn.setToolTipText("Render the selected algorithm on the current input to a .gif, or to a folder of PNG frames");
+        exportVideoBtn.addActionListener(e -> exportVideo());
+
+        JButton loadRecordsBtn = new JButton("Load Records");
+        styleButton(loadRecordsBtn, COL_DEFAULT);
+        loadRecordsBtn.setToolTipText("Sort the rows of a CSV file by key columns without moving them (argsort)");
+        loadRecordsBtn.addActionListener(e -> loadRecords());
+
+        JButton saveRecordsBtn = new JButton("Save Records");
+        styleButton(saveRecordsBtn, COL_DEFAULT);
+        saveRecordsBtn.setToolTipText("Write the rows of the last record sort in sorted order");
+        saveRecordsBtn.addActionListener(e -> saveRecords());
+
+        JButton externalBtn = new JButton("External Sort");
+        styleButton(externalBtn, COL_DEFAULT);
+        externalBtn.setToolTipText("Sort a file of integers bigger than memory into another file, then play its runs and merge passes");
+        externalBtn.addActionListener(e -> externalSort());
+
+        JButton loadDataBtn = new JButton("Load Data");
+        styleButton(loadDataBtn, COL_DEFAULT);
+        loadDataBtn.setToolTipText("Integers as CSV / one per line, or raw little-endian int32 (.i32, .bin) / int64 (.i64)");
+        loadDataBtn.addActionListener(e -> loadData());
+
+        row2.add(new JLabel("Input:") {{ setForeground(COL_DEFAULT); }});
+        row2.add(inputField);
+        row2.add(addBtn);
+        row2.add(Box.createHorizontalStrut(20));
+        row2.add(new JLabel("Size:") {{ setForeground(COL_DEFAULT); }});
+        row2.add(randCountSpin);
+        row2.add(randBtn);
+        row2.add(clearBtn);
+        row2.add(Box.createHorizontalStrut(20));
+        row2.add(saveTraceBtn);
+        row2.add(openTraceBtn);
+        row2.add(loadDataBtn);
+        row2.add(loadRecordsBtn);
+        row2.add(saveRecordsBtn);
+        row2.add(externalBtn);
+        row2.add(exportVideoBtn);
+
+        container.add(row1);
+        container.add(row2);
+        return container;
+    }
+
+    private void parseAndAddInput(String text) {
+        if(isSorting) return;
+        if(text.trim().isEmpty()) return;
+        leaveRace();
+        dropTimeline();
+        try {
+            String[] parts = text.split(",");
+            boolean added = false;
+            for(String p : parts) {
+                String clean = p.trim();
+                if(!clean.isEmpty()) {
+                    int val = Integer.parseInt(clean);
+                    nodes.add(val, WIDTH/2.0, HEIGHT/2.0);
+                    added = true;
+                    inputSeed = 0;
+                }
+            }
+            if(added) arrangeNodesLinearly();
+        } catch (NumberFormatException e) {
+            JOptionPane.showMessageDialog(this, "Please enter numbers separated by commas.");
+        }
+    }
+
+    private void addRandomNodes(int count) {
+        dropTimeline();
+        long seed = new Random().nextLong();
+        inputSeed = nodes.isEmpty() ? seed : 0;
+        nodes.addAll(SortEngine.randomInput(count, seed), WIDTH/2.0, HEIGHT/2.0);
+        arrangeNodesLinearly();
+    }
+
+    private void saveTrace() {
+        if(lastOps == null) {
+            JOptionPane.showMessageDialog(this, "Run a sort first, then save its trace.");
+            return;
+        }
+        JFileChooser chooser = new JFileChooser();
+        if(chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        Path out = chooser.getSelectedFile().toPath();
+        String algo = lastAlgo;
+        int[] input = lastInput;
+        long seed = lastSeed;
+        OpBuffer ops = lastOps;
+        VirtualThreads.start("save trace", () -> {
+            long t0 = System.nanoTime();
+            try {
+                TraceWriter.save(out, algo, input, seed, ops);
+                double secs = (System.nanoTime() - t0) / 1e9;
+                SwingUtilities.invokeLater(() -> complexityLabel.setText(
+                        String.format("Wrote %,d events to %s in %.2f s", ops.size(), out.getFileName(), secs)));
+            } catch(IOException | UncheckedIOException ex) {
+                SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(this, "Could not save trace: " + ex.getMessage()));
+            }
+        });
+    }
+
+    private void openTrace() {
+        if(isSorting || replaying) return;
+        JFileChooser chooser = new JFileChooser();
+        if(chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        try {
+            TraceReader trace = new TraceReader(chooser.getSelectedFile().toPath());
+            leaveRace();
+            algoBox.setSelectedItem(trace.algorithm());
+            nodes.clear();
+            nodes.addAll(trace.input(), WIDTH/2.0, HEIGHT/2.0);
+            inputSeed = trace.seed();
+            arrangeNodesLinearly();
+            launchRun(() -> trace);
+        } catch(IOException ex) {
+            JOptionPane.showMessageDialog(this, "Could not open trace: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Loads an input array from a file on a background thread, with progress
+     * in the status line, and makes it the current input once it is read.
+     */
+    private void loadData() {
+        if(isSorting || loading) return;
+        JFileChooser chooser = new JFileChooser();
+        chooser.setAcceptAllFileFilterUsed(true);
+        for(DataLoader.Format f : DataLoader.Format.values()) {
+            chooser.addChoosableFileFilter(new FileFilter() {
+                @Override public boolean accept(File file) { return file.isDirectory() || DataLoader.Format.of(file.toPath()) == f; }
+                @Override public String getDescription() { return f.description; }
+            });
+        }
+        chooser.setFileFilter(chooser.getAcceptAllFileFilter());
+        if(chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
+
+        Path file = chooser.getSelectedFile().toPath();
+        String chosen = chooser.getFileFilter().getDescription();
+        DataLoader.Format format = DataLoader.Format.of(file);
+        for(DataLoader.Format f : DataLoader.Format.values()) if(f.description.equals(chosen)) format = f;
+
+        DataLoader.Format fmt = format;
+        String name = file.getFileName().toString();
+        loading = true;
+        VirtualThreads.start("load: " + name, () -> {
+            long t0 = System.nanoTime();
+            try {
+                int[] values = DataLoader.load(file, fmt, (done, total, count) -> SwingUtilities.invokeLater(() ->
+                        complexityLabel.setText(String.format("Loading %s: %d%%  (%,d values)",
+                                name, total == 0 ? 100 : done * 100 / total, count))));
+                double secs = (System.nanoTime() - t0) / 1e9;
+                SwingUtilities.invokeLater(() -> {
+                    loading = false;
+                    if(isSorting) {
+                        JOptionPane.showMessageDialog(this, "A sort started while " + name + " was loading; load it again when it is done.");
+                        return;
+                    }
+                    leaveRace();
+                    dropTimeline();
+                    nodes.clear();
+                    nodes.addAll(values, WIDTH/2.0, HEIGHT/2.0);
+                    inputSeed = 0;
+                    arrangeNodesLinearly();
+                    complexityLabel.setText(String.format("Loaded %,d values from %s in %.2f s", values.length, name, secs));
+                });
+            } catch(IOException | RuntimeException | OutOfMemoryError ex) {
+                SwingUtilities.invokeLater(() -> {
+                    loading = false;
+                    updateComplexityText();
+                    JOptionPane.showMessageDialog(this, "Could not load " + name + ": " + ex.getMessage());
+                });
+            }
+        });
+    }
+
+    /**
+     * Sorts a file that need not fit in memory into another file on a
+     * background thread, then plays the preview it recorded of the runs
+     * being formed and merged.
+     */
+    private void externalSort() {
+        if(isSorting || replaying || loading) return;
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("File to sort");
+        if(chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        Path in = chooser.getSelectedFile().toPath();
+        String name = in.getFileName().toString();
+        chooser.setDialogTitle("Write the sorted values to");
+        chooser.setSelectedFile(new File(chooser.getCurrentDirectory(), name.replaceFirst("(\\.[^.]*)?$", "-sorted$1")));
+        if(chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        Path out = chooser.getSelectedFile().toPath();
+
+        loading = true;
+        long budget = ExternalSort.defaultBudget();
+        VirtualThreads.start("external sort: " + name, () -> {
+            try {
+                ExternalSort sort = new ExternalSort(budget, Runtime.getRuntime().availableProcessors(), true,
+                        text -> SwingUtilities.invokeLater(() -> complexityLabel.setText(text)));
+                ExternalSort.Report report = sort.sort(in, DataLoader.Format.of(in), out, DataLoader.Format.of(out));
+                SwingUtilities.invokeLater(() -> {
+                    loading = false;
+                    String text = name + " sorted into " + out.getFileName() + ": " + report;
+                    if(isSorting || replaying) {
+                        complexityLabel.setText(text);
+                        return;
+                    }
+                    leaveRace();
+                    nodes.clear();
+                    nodes.addAll(sort.previewInput(), WIDTH/2.0, HEIGHT/2.0);
+                    inputSeed = 0;
+                    arrangeNodesLinearly();
+                    launchRun(ExternalSort.NAME, sort::previewOps);
+                    complexityLabel.setText(text);
+                });
+            } catch(IOException | RuntimeException | OutOfMemoryError ex) {
+                SwingUtilities.invokeLater(() -> {
+                    loading = false;
+                    updateComplexityText();
+                    JOptionPane.showMessageDialog(this, "Could not sort " + name + ": " + ex.getMessage());
+                });
+            }
+        });
+    }
+
+    /** Loads a CSV file of records on a background thread, then asks which columns to sort it by. */
+    private void loadRecords() {
+        if(isSorting || replaying || loading) return;
+        JFileChooser chooser = new JFileChooser();
+        if(chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        Path file = chooser.getSelectedFile().toPath();
+        String name = file.getFileName().toString();
+
+        loading = true;
+        complexityLabel.setText("Loading " + name + "...");
+        VirtualThreads.start("records: " + name, () -> {
+            try {
+                RecordTable table = RecordTable.load(file);
+                SwingUtilities.invokeLater(() -> {
+                    loading = false;
+                    updateComplexityText();
+                    chooseRecordKeys(table);
+                });
+            } catch(IOException | RuntimeException | OutOfMemoryError ex) {
+                SwingUtilities.invokeLater(() -> {
+                    loading = false;
+                    updateComplexityText();
+                    JOptionPane.showMessageDialog(this, "Could not load " + name + ": " + ex.getMessage());
+                });
+            }
+        });
+    }
+
+    private void chooseRecordKeys(RecordTable table) {
+        JTextField keyField = new JTextField(table.columns().get(0), 24);
+        JComboBox<RecordSort.Order> orderBox = new JComboBox<>(RecordSort.Order.values());
+        JPanel form = new JPanel(new GridLayout(0, 1, 0, 4));
+        form.add(new JLabel(table.toString()));
+        form.add(new JLabel("Columns: " + String.join(", ", table.columns())));
+        form.add(new JLabel("Sort by (comma separated, '-' for descending):"));
+        form.add(keyField);
+        form.add(orderBox);
+        if(JOptionPane.showConfirmDialog(this, form, "Sort Records", JOptionPane.OK_CANCEL_OPTION) != JOptionPane.OK_OPTION) return;
+
+        String spec = keyField.getText().trim();
+        RecordSort.Order order = (RecordSort.Order) orderBox.getSelectedItem();
+        List<RecordSort.Key> keys;
+        try {
+            keys = RecordSort.keys(table, spec);
+        } catch(IllegalArgumentException ex) {
+            JOptionPane.showMessageDialog(this, ex.getMessage());
+            return;
+        }
+        complexityLabel.setText("Reading keys " + spec + "...");
+        VirtualThreads.start("keys: " + spec, () -> {
+            int[] rank = RecordSort.ranks(table, keys);
+            int[] display = RecordSort.display(table, keys, rank);
+            SwingUtilities.invokeLater(() -> sortRecords(table, spec, order, rank, display));
+        });
+    }
+
+    /**
+     * Shows each row's key as a node and argsorts the rows on the main view.
+     * The throughput in the report comes from a second, unrecorded sort.
+     */
+    private void sortRecords(RecordTable table, String spec, RecordSort.Order order, int[] rank, int[] display) {
+        if(isSorting || replaying) return;
+        leaveRace();
+        nodes.clear();
+        nodes.addAll(display, WIDTH/2.0, HEIGHT/2.0);
+        inputSeed = 0;
+        arrangeNodesLinearly();
+
+        launchRun("Record Sort by " + spec, () -> {
+            OpBuffer ops = new OpBuffer(rank.length * 8);
+            RecordSort recorded = new RecordSort(rank, display, ops);
+            recorded.sort(order);
+            records = table;
+            recordOrder = recorded.perm();
+
+            RecordSort timed = new RecordSort(rank, display, OpSink.NONE);
+            long t0 = System.nanoTime();
+            timed.sort(order);
+            double secs = Math.max(1e-9, (System.nanoTime() - t0) / 1e9);
+            String text = String.format("%s by %s, %s: %s  |  %,.0f rows/s, %.0f-byte rows never moved",
+                    table.file().getFileName(), spec, order, RecordSort.stability(rank, recorded.perm()),
+                    rank.length / secs, table.rowBytes());
+            SwingUtilities.invokeLater(() -> complexityLabel.setText(text));
+            return ops;
+        });
+    }
+
+    /** Writes the last sorted table: the one pass that copies the payload. */
+    private void saveRecords() {
+        RecordTable table = records;
+        int[] order = recordOrder;
+        if(table == null) {
+            JOptionPane.showMessageDialog(this, "Load and sort records first, then save them.");
+            return;
+        }
+        JFileChooser chooser = new JFileChooser();
+        chooser.setSelectedFile(new File(table.file().getFileName().toString().replaceFirst("(\\.[^.]*)?$", "-sorted.csv")));
+        if(chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        Path out = chooser.getSelectedFile().toPath();
+        VirtualThreads.start("save records", () -> {
+            long t0 = System.nanoTime();
+            try {
+                table.write(out, order);
+                double secs = (System.nanoTime() - t0) / 1e9;
+                SwingUtilities.invokeLater(() -> complexityLabel.setText(
+                        String.format("Wrote %,d rows to %s in %.2f s", order.length, out.getFileName(), secs)));
+            } catch(IOException ex) {
+                SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(this, "Could not save records: " + ex.getMessage()));
+            }
+        });
+    }
+
+    /**
+     * Renders the selected algorithm on the current input off-screen, as
+     * about {@link #EXPORT_SECONDS} of video, while the window stays usable.
+     * The run is recorded on a deep-stack thread, as a played one is, and
+     * rendered on a virtual thread.
+     */
+    private void exportVideo() {
+        if(nodes.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "Add some input first, then export a video of it.");
+            return;
+        }
+        JFileChooser chooser = new JFileChooser();
+        chooser.setSelectedFile(new File(currentAlgo.replace(' ', '-').toLowerCase() + ".gif"));
+        chooser.setToolTipText("Name it .gif for an animated GIF, anything else becomes a folder of PNG frames");
+        if(chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+
+        Path out = chooser.getSelectedFile().toPath();
+        String algo = currentAlgo;
+        int[] input = nodes.values();
+        ViewMode view = viewMode;
+        long t0 = System.nanoTime();
+        exports.submit("export: " + algo, () -> {
+            try {
+                OpBuffer ops = new OpBuffer();
+                SortEngine.sort(algo, input.clone(), ops);
+                return ops;
+            } catch(RuntimeException | StackOverflowError | OutOfMemoryError ex) {
+                exportFailed(ex);
+                return null;
+            }
+        }, ops -> {
+            try {
+                int k = FrameExporter.opsPerFrame(ops.size(), EXPORT_SECONDS, EXPORT_FPS);
+                FrameExporter exporter = new FrameExporter(WIDTH, HEIGHT, EXPORT_FPS, view, Runtime.getRuntime().availableProcessors());
+                long frames = exporter.export(algo, input, ops, k, out, (written, total) -> {
+                    if(written % 10 == 0) SwingUtilities.invokeLater(() -> complexityLabel.setText(
+                            String.format("Exporting %s: %d%%  (%,d frames)", out.getFileName(), Math.min(100, written * 100 / total), written)));
+                });
+                double secs = (System.nanoTime() - t0) / 1e9;
+                SwingUtilities.invokeLater(() -> complexityLabel.setText(
+                        String.format("Exported %,d frames to %s in %.1f s", frames, out.getFileName(), secs)));
+            } catch(IOException | InterruptedException | RuntimeException | OutOfMemoryError ex) {
+                exportFailed(ex);
+            }
+        }, () -> {});
+    }
+
+    private void exportFailed(Throwable ex) {
+        SwingUtilities.invokeLater(() -> {
+            updateComplexityText();
+            JOptionPane.showMessageDialog(this, "Could not export video: " + reason(ex));
+        });
+    }
+
+    private void arrangeNodesLinearly() {
+        int margin = 60;
+        int minSlotWidth = useRaster() ? 0 : 50;
+        int totalReqWidth = margin * 2 + (nodes.size() * minSlotWidth);
+        int viewWidth = Math.max(scrollPane != null ? scrollPane.getWidth() : WIDTH, totalReqWidth);
+        if(viewWidth < totalReqWidth) viewWidth = totalReqWidth;
+
+        int canvasH = usesLevels(currentAlgo) ? 1500 : HEIGHT;
+        if(canvas != null) {
+            canvas.setPreferredSize(new Dimension(viewWidth, canvasH));
+            canvas.revalidate();
+        }
+
+        double startY = (viewMode == ViewMode.NODES) ? 150 : 600;
+        arrange(main, viewWidth, startY);
+        wake();
+    }
+
+    /** Spreads a run's nodes evenly across the width at height y and records its largest value. */
+    private static void arrange(SortRun run, int viewWidth, double y) {
+        int margin = 60;
+        NodeStore ns = run.nodes;
+        double spacing = (double)(viewWidth - (margin*2)) / Math.max(1, ns.size());
+        double startX = margin + (spacing / 2.0);
+
+        int max = 1;
+        for(int i=0; i<ns.size(); i++) {
+            ns.setTarget(i, startX + (i * spacing), y);
+            max = Math.max(max, ns.value(i));
+        }
+        run.maxValue = max;
+    }
+
+    private boolean useRaster() {
+        return CanvasPainter.useRaster(viewMode, nodes.size());
+    }
+
+    private void fullReset() {
+        leaveRace();
+        pendingPlay = false;
+        stopSorting();
+
+        main.reset();
+        arrangeNodesLinearly();
+        scrubTo(0); // back to the input the last run started from
+        canvas.repaint();
+    }
+
+    /** Stops the main view's run: its thread is interrupted and returns within one op. */
+    private void stopSorting() {
+        isSorting = false;
+        gate.resume();
+        pauseBtn.setText("Pause");
+        if(sortTask != null) sortTask.stop();
+    }
+
+    /**
+     * Applies exactly one more op of the main view's run, pausing it first if
+     * it is playing. Without a run in progress it starts one (or resumes the
+     * scrubbed one) paused at its first op.
+     */
+    private void step() {
+        if(!lanes.isEmpty()) return;
+        if(!isSorting) {
+            if(replaying) return;
+            startSorting();
+            if(!isSorting) return;
+        }
+        gate.pause();
+        pauseBtn.setText("Resume");
+        gate.step();
+        wake();
+    }
+
+    private void togglePause() {
+        if(!isSorting) return;
+        if(gate.isPaused()) gate.resume();
+        else gate.pause();
+        pauseBtn.setText(gate.isPaused() ? "Resume" : "Pause");
+        wake();
+    }
+
+    private void startSorting() {
+        if(isSorting) return;
+        if(replaying) {
+            // The last run is still returning from a stop; play once it has
+            pendingPlay = true;
+            return;
+        }
+        leaveRace();
+        if(nodes.isEmpty()) return;
+
+        Timeline t = timeline;
+        if(t != null && t.algorithm().equals(currentAlgo) && main.cursor() < t.size()) {
+            // Scrubbed back into the last run: play on from there
+            startMetrics(main.algorithm);
+            play(t::ops);
+            return;
+        }
+
+        int[] data = nodes.values();
+        String algo = currentAlgo;
+        long seed = inputSeed;
+
+        // Record the whole run on a plain copy first, then animate it.
+        launchRun(() -> {
+            int[] input = data.clone();
+            OpBuffer ops = new OpBuffer(data.length * 8);
+            SortEngine.sort(algo, data, ops);
+            lastInput = input;
+            lastAlgo = algo;
+            lastSeed = seed;
+            lastOps = ops;
+            String sequential = SortAlgorithms.get(algo).sequential();
+            if(sequential != null) reportSpeedup(algo, sequential, input);
+            return ops;
+        });
+    }
+
+    private static boolean usesLevels(String algo) {
+        SortAlgorithm a = SortAlgorithms.find(algo);
+        return a != null && a.usesLevels();
+    }
+
+    /** Times the parallel sort against its sequential version on the same input, without recording. */
+    private void reportSpeedup(String algo, String sequential, int[] input) {
+        long seqNanos = timeSort(sequential, input);
+        long parNanos = timeSort(algo, input);
+        String text = String.format("Speedup over %s: %.2fx (%.2f ms vs %.2f ms, %d workers)",
+                sequential, (double) seqNanos / Math.max(1, parNanos), seqNanos / 1e6, parNanos / 1e6,
+                ForkJoinPool.commonPool().getParallelism());
+        SwingUtilities.invokeLater(() -> complexityLabel.setText(text));
+    }
+
+    private static long timeSort(String algo, int[] input) {
+        int[] work = input.clone();
+        long t0 = System.nanoTime();
+        SortEngine.sort(algo, work, OpSink.NONE);
+        return System.nanoTime() - t0;
+    }
+
+    /** Records a new run on the main view, indexes it for the scrubber and plays it. */
+    private void launchRun(Callable<? extends OpSource> recorder) {
+        launchRun(currentAlgo, recorder);
+    }
+
+    private void launchRun(String algo, Callable<? extends OpSource> recorder) {
+        dropTimeline();
+        main.algorithm = algo;
+        main.reset();
+        startMetrics(main.algorithm);
+
+        int[] input = nodes.values();
+        play(() -> {
+            OpSource ops = recorder.call();
+            Timeline t = new Timeline(algo, input, ops, Timeline.BUDGET_BYTES);
+            timeline = t;
+            VirtualThreads.start("timeline: " + algo, t::build);
+            SwingUtilities.invokeLater(this::analyzeLocality);
+            return ops;
+        });
+    }
+
+    /** Plays the main view from its current op to the end of the ops {@code source} hands over. */
+    private void play(Callable<? extends OpSource> source) {
+        isSorting = true;
+        replaying = true;
+        gate.resume();
+        pauseBtn.setText("Pause");
+        wake();
+
+        boolean fast = turbo;
+        sortTask = sorter.submit(() -> {
+            try {
+                OpSource ops = source.call();
+                if(Thread.currentThread().isInterrupted()) return;
+
+                if(fast) {
+                    playTurbo(main, ops);
+                } else {
+                    if(usesLevels(main.algorithm)) arrangeNodesLinearly();
+                    main.replay(ops);
+                }
+
+                if(!isSorting || Thread.currentThread().isInterrupted()) return;
+                pointers.clear();
+                arrangeNodesLinearly();
+                if(fast) {
+                    nodes.fillState(SortOps.SORTED);
+                    return;
+                }
+                SortRun.sleep(500);
+                for(int i=0; i<nodes.size() && !Thread.currentThread().isInterrupted(); i++) {
+                    nodes.setState(i, SortOps.SORTED);
+                    SortRun.sleep(30);
+                }
+            } catch(InterruptedException e) {
+                // stopped
+            } catch(Exception | StackOverflowError | OutOfMemoryError e) {
+                String algo = main.algorithm;
+                SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(this, "Could not run " + algo + ": " + reason(e)));
+            }
+        }, () -> {
+            isSorting = false;
+            replaying = false;
+            SwingUtilities.invokeLater(this::replayStopped);
+        });
+    }
+
+    /** What went wrong, in words, also for the errors that carry no message. */
+    private static String reason(Throwable t) {
+        if(t instanceof StackOverflowError) return "it recursed too deep for the thread's stack";
+        if(t instanceof OutOfMemoryError) return "out of memory";
+        return t.getMessage() != null ? t.getMessage() : t.toString();
+    }
+
+    // --- RACE MODE ---
+
+    /**
+     * Races every algorithm on copies of the current input, or the selected
+     * algorithm on N random inputs of the current size. Each lane records
+     * on a deep-stack thread, then replays on its own virtual thread; the
+     * one animation timer paints them all.
+     */
+    private void startRace() {
+        if(isSorting) return;
+        leaveRace();
+
+        String mode = (String) raceBox.getSelectedItem();
+        int n = nodes.isEmpty() ? 20 : nodes.size();
+        Random rnd = new Random();
+        List<Lane> race = new ArrayList<>();
+        if(RACE_ALL.equals(mode)) {
+            int[] input = nodes.isEmpty() ? SortEngine.randomInput(n, rnd.nextLong()) : nodes.values();
+            for(int k=0; k<algoBox.getItemCount(); k++) race.add(newLane(algoBox.getItemAt(k), input));
+        } else {
+            int copies = Integer.parseInt(mode.substring(0, mode.indexOf(' ')));
+            for(int k=0; k<copies; k++) race.add(newLane(currentAlgo, SortEngine.randomInput(n, rnd.nextLong())));
+        }
+        List<Lane> current = List.copyOf(race);
+        lanes = current;
+        arrangeLanes();
+        startMetrics("Race: " + mode + ", " + current.size() + " lanes");
+
+        isSorting = true;
+        gate.resume();
+        pauseBtn.setText("Pause");
+
+        boolean fast = turbo;
+        AtomicInteger finished = new AtomicInteger();
+        AtomicInteger remaining = new AtomicInteger(race.size());
+        List<SortTasks.Task> tasks = new ArrayList<>();
+        for(Lane lane : current) {
+            SortRun run = lane.run();
+            tasks.add(racers.submit("race: " + run.algorithm, () -> {
+                try {
+                    int[] data = run.nodes.values();
+                    OpBuffer ops = new OpBuffer(data.length * 8);
+                    SortEngine.sort(run.algorithm, data, ops);
+                    return ops;
+                } catch(RuntimeException | StackOverflowError e) {
+                    e.printStackTrace();
+                    return null;
+                }
+            }, ops -> {
+                try {
+                    if(fast) playTurbo(run, ops);
+                    else run.replay(ops);
+
+                    if(!isSorting || run.isCancelled()) return;
+                    run.place = finished.incrementAndGet();
+                    run.pointers.clear();
+                    run.nodes.fillState(SortOps.SORTED);
+                } catch(InterruptedException e) {
+                    // left the race
+                } catch(RuntimeException e) {
+                    e.printStackTrace();
+                }
+            }, () -> {
+                if(remaining.decrementAndGet() == 0 && lanes == current) isSorting = false;
+            }));
+        }
+        raceTasks = tasks;
+    }
+
+    private Lane newLane(String algo, int[] input) {
+        SortRun run = new SortRun(algo, control, false);
+        run.nodes.addAll(input, WIDTH/2.0, 0);
+        return new Lane(run, new CanvasPainter());
+    }
+
+    /** Stacks the lanes vertically, filling the viewport or scrolling when there are many. */
+    private void arrangeLanes() {
+        List<Lane> race = lanes;
+        if(race.isEmpty()) return;
+        int viewH = scrollPane != null && scrollPane.getHeight() > 0 ? scrollPane.getHeight() : HEIGHT;
+        laneHeight = Math.max(MIN_LANE_HEIGHT, viewH / race.size());
+
+        int viewWidth = scrollPane != null && scrollPane.getWidth() > 0 ? scrollPane.getWidth() : WIDTH;
+        for(Lane lane : race) {
+            int slot = CanvasPainter.useRaster(viewMode, lane.run().nodes.size()) ? 0 : 50;
+            viewWidth = Math.max(viewWidth, 120 + lane.run().nodes.size() * slot);
+        }
+        canvas.setPreferredSize(new Dimension(viewWidth, laneHeight * race.size()));
+        canvas.revalidate();
+
+        // Lane-local coordinates; the canvas translates each lane into place
+        double y = (viewMode == ViewMode.NODES) ? laneHeight / 2.0 + 10 : laneBaseline();
+        for(Lane lane : race) arrange(lane.run(), viewWidth, y);
+        wake();
+    }
+
+    private int laneBaseline() {
+        return laneHeight - 25;
+    }
+
+    private void leaveRace() {
+        if(lanes.isEmpty()) return;
+        for(Lane lane : lanes) lane.run().cancel();
+        for(SortTasks.Task task : raceTasks) task.stop();
+        raceTasks = List.of();
+        lanes = List.of();
+        isSorting = false; // stops the lane threads at their next op
+        gate.resume();
+        arrangeNodesLinearly();
+    }
+
+    private void styleButton(AbstractButton b, Color bg) {
+        b.setBackground(bg);
+        b.setForeground(Color.BLACK);
+        b.setFocusPainted(false);
+        b.setFont(new Font("Segoe UI", Font.BOLD, 12));
+        b.setBorder(new CompoundBorder(new LineBorder(bg.darker(), 1), new EmptyBorder(8, 20, 8, 20)));
+        b.setCursor(new Cursor(Cursor.HAND_CURSOR));
+    }
+
+    private void styleButton(JToggleButton b, Color bg) {
+        b.setBackground(bg);
+        b.setForeground(Color.BLACK);
+        b.setFocusPainted(false);
+        b.setBorder(new CompoundBorder(new LineBorder(bg.darker(), 1), new EmptyBorder(8, 20, 8, 20)));
+        b.setCursor(new Cursor(Cursor.HAND_CURSOR));
+    }
+
+    private void styleComponent(JComponent c) {
+        c.setBackground(Color.WHITE);
+        c.setForeground(Color.BLACK);
+        c.setBorder(BorderFactory.createLineBorder(BORDER_COLOR));
+        c.setFont(new Font("Segoe UI", Font.PLAIN, 12));
+    }
+
+    class CanvasPanel extends JPanel {
+        private static final int LANE_TITLE_WIDTH = 700, LANE_TITLE_HEIGHT = 24;
+
+        private final CanvasPainter painter = new CanvasPainter();
+        private final Font laneFont = new Font("Monospaced", Font.BOLD, 13);
+        private final Rectangle dirty = new Rectangle();
+        private List<Lane> paintedLanes = List.of();
+
+        /**
+         * Repaints only what moved or changed since the last frame; Swing merges the requests.
+         * Returns false when there was nothing to repaint.
+         */
+        boolean repaintChanged() {
+            List<Lane> race = lanes;
+            if(race != paintedLanes) {
+                paintedLanes = race;
+                repaint();
+                return true;
+            }
+            if(race.isEmpty()) {
+                if(!painter.dirtyRegion(getWidth(), getHeight(), nodes, pointers, viewMode, main.maxValue,
+                        CanvasPainter.RASTER_BOTTOM, CanvasPainter.BAR_AREA_HEIGHT, dirty)) return false;
+                repaint(dirty);
+                return true;
+            }
+            boolean drawn = false;
+            int h = laneHeight;
+            for(int k=0; k<race.size(); k++) {
+                SortRun run = race.get(k).run();
+                if(race.get(k).painter().dirtyRegion(getWidth(), h, run.nodes, run.pointers, viewMode, run.maxValue,
+                        laneBaseline(), h - 60, dirty)) {
+                    repaint(dirty.x, dirty.y + k * h, dirty.width, dirty.height);
+                    drawn = true;
+                }
+                if(isSorting) {
+                    repaint(0, k * h, LANE_TITLE_WIDTH, LANE_TITLE_HEIGHT); // live counters
+                    drawn = true;
+                }
+            }
+            return drawn;
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            long t0 = System.nanoTime();
+            super.paintComponent(g);
+            List<Lane> race = lanes;
+            if(race.isEmpty()) {
+                painter.paint((Graphics2D) g, getWidth(), getHeight(), nodes, pointers, viewMode, main.maxValue);
+            } else {
+                paintLanes((Graphics2D) g, race);
+            }
+            lastPaintNanos = System.nanoTime() - t0;
+            if(isSorting) metrics.frames.record(lastPaintNanos);
+        }
+
+        private void paintLanes(Graphics2D g2, List<Lane> race) {
+            int w = getWidth(), h = laneHeight;
+            g2.setColor(BG_COLOR);
+            g2.fillRect(0, 0, w, getHeight());
+
+            Rectangle clip = g2.getClipBounds();
+            int first = clip == null ? 0 : Math.max(0, clip.y / h);
+            int last = clip == null ? race.size() - 1 : Math.min(race.size() - 1, (clip.y + clip.height) / h);
+            for(int k=first; k<=last; k++) {
+                SortRun run = race.get(k).run();
+                Graphics2D lg = (Graphics2D) g2.create(0, k * h, w, h);
+                try {
+                    race.get(k).painter().paintLane(lg, w, run.nodes, run.pointers, viewMode, run.maxValue,
+                            laneBaseline(), h - 60);
+                    lg.setColor(BORDER_COLOR);
+                    lg.drawLine(0, h - 1, w, h - 1);
+                    lg.setFont(laneFont);
+                    lg.setColor(run.place == 1 ? COL_SORTED : COL_TEXT_BRIGHT);
+                    int place = run.place;
+                    lg.drawString(String.format("%s   cmp %,d   swp %,d%s", run.algorithm,
+                            run.comparisons.sum(), run.swaps.sum(), place > 0 ? "   #" + place : ""), 12, 18);
+                } finally {
+                    lg.dispose();
+                }
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        if(args.length > 0 && args[0].equals("--record")) {
+            recordTrace(args);
+            return;
+        }
+        if(args.length > 0 && args[0].equals("--export")) {
+            exportFrames(args);
+            return;
+        }
+        if(args.length > 0 && args[0].equals("--benchmark")) {
+            runBenchmark(args);
+            return;
+        }
+        if(args.length > 0 && args[0].equals("--external-sort")) {
+            externalSort(args);
+            return;
+        }
+        if(args.length > 0 && args[0].equals("--sort-records")) {
+            sortRecords(args);
+            return;
+        }
+        if("exit".equals(STARTUP_PROBE) && GraphicsEnvironment.isHeadless()) {
+            warmUpHeadless();
+            return;
+        }
+        SwingUtilities.invokeLater(() -> {
+            NeonSortStudio app = new NeonSortStudio();
+            app.setVisible(true);
+            if("exit".equals(STARTUP_PROBE)) app.trainAndExit();
+        });
+    }
+
+    /**
+     * With {@code -Dneonsort.startup=log} or {@code =exit}, prints how long after
+     * the JVM started a startup milestone was reached.
+     */
+    private static void startupMark(String milestone) {
+        if(STARTUP_PROBE == null) return;
+        long now = System.currentTimeMillis();
+        long start = ManagementFactory.getRuntimeMXBean().getStartTime(); // loaded only when probing
+        System.out.printf("startup: %s after %d ms%n", milestone, now - start);
+    }
+
+    /**
+     * {@code -Dneonsort.startup=exit}: goes through a typical start (intro, main
+     * screen, a short turbo run) and exits, so a class-data-sharing archive
+     * recorded with {@code -XX:ArchiveClassesAtExit} holds what startup loads.
+     */
+    private void trainAndExit() {
+        SwingUtilities.invokeLater(() -> {
+            showApp();
+            turbo = true;
+            startSorting();
+            new Timer(1500, e -> {
+                startupMark("training done");
+                System.exit(0);
+            }).start();
+        });
+    }
+
+    /** The same without a display: every algorithm recorded, replayed and painted off-screen. */
+    private static void warmUpHeadless() {
+        int[] input = SortEngine.randomInput(64, 42);
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        CanvasPainter painter = new CanvasPainter();
+        for(String algo : SortAlgorithms.names()) {
+            OpBuffer ops = new OpBuffer();
+            SortEngine.sort(algo, input.clone(), ops);
+            SortRun run = new SortRun(algo, null, false);
+            run.nodes.addAll(input, 0, 0);
+            arrange(run, WIDTH, 150);
+            run.advance(ops, ops.size());
+            for(ViewMode view : ViewMode.values()) painter.paint(g, WIDTH, HEIGHT, run.nodes, run.pointers, view, run.maxValue);
+        }
+        g.dispose();
+        startupMark("headless training done");
+    }
+
+    /**
+     * Headless recording of a large run straight to disk:
+     * --record "Merge Sort" 10000000 42 merge.trace
+     */
+    private static void recordTrace(String[] args) {
+        if(args.length != 5) {
+            System.err.println("Usage: --record <algorithm> <size> <seed> <file>");
+            System.exit(2);
+        }
+        String algo;
+        int n;
+        long seed;
+        try {
+            // Checked before the file is opened, so a typo leaves an existing trace alone
+            algo = SortAlgorithms.get(args[1]).name();
+            n = Integer.parseInt(args[2]);
+            seed = Long.parseLong(args[3]);
+        } catch(IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: --record <algorithm> <size> <seed> <file>");
+            System.exit(2);
+            return;
+        }
+        int[] data = SortEngine.randomInput(n, seed);
+
+        long start = System.nanoTime();
+        try(TraceWriter w = new TraceWriter(Path.of(args[4]), algo, data, seed)) {
+            SortEngine.sort(algo, data, w);
+            System.out.printf("%s: %,d elements, %,d events in %d ms%n",
+                    algo, n, w.events(), (System.nanoTime() - start) / 1_000_000);
+        } catch(IOException | UncheckedIOException e) {
+            System.err.println("Could not write trace: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Headless check of the complexity labels against measured growth:
+     * --benchmark ["Quick Sort"|all] [max size] [trials]
+     */
+    private static void runBenchmark(String[] args) {
+        if(args.length > 4) {
+            System.err.println("Usage: --benchmark [algorithm|all] [max size=" + EmpiricalBenchmark.DEFAULT_MAX_SIZE
+                    + "] [trials=" + EmpiricalBenchmark.DEFAULT_TRIALS + "]");
+            System.exit(2);
+        }
+        List<String> algos = args.length < 2 || args[1].equals("all") ? SortAlgorithms.names() : List.of(SortAlgorithms.get(args[1]).name());
+        int maxSize = args.length > 2 ? Integer.parseInt(args[2]) : EmpiricalBenchmark.DEFAULT_MAX_SIZE;
+        int trials = args.length > 3 ? Integer.parseInt(args[3]) : EmpiricalBenchmark.DEFAULT_TRIALS;
+        try {
+            new EmpiricalBenchmark(maxSize, trials, System.out::println).start(algos, () -> {}).join();
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Headless sort of a file that need not fit in the heap, in the formats
+     * Load Data reads (chosen by extension for the output too):
+     * --external-sort big.i32 sorted.i32 [memory MB] [workers]
+     */
+    private static void externalSort(String[] args) {
+        if(args.length < 3 || args.length > 5) {
+            System.err.println("Usage: --external-sort <input> <output> [memory MB, default a third of the heap] [workers]");
+            System.exit(2);
+        }
+        Path in = Path.of(args[1]), out = Path.of(args[2]);
+        try {
+            long budget = args.length > 3 ? Long.parseLong(args[3]) << 20 : ExternalSort.defaultBudget();
+            int workers = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+            ExternalSort sort = new ExternalSort(budget, workers, false, text -> {});
+            ExternalSort.Report report = sort.sort(in, DataLoader.Format.of(in), out, DataLoader.Format.of(out));
+            System.out.printf("%s -> %s: %s%n", in.getFileName(), out.getFileName(), report);
+        } catch(IOException | IllegalArgumentException e) {
+            System.err.println("Could not sort " + in.getFileName() + ": " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Headless argsort of a CSV file's rows, optionally written out sorted:
+     * --sort-records people.csv "city,-age" [stable|in-place] [sorted.csv]
+     */
+    private static void sortRecords(String[] args) {
+        if(args.length < 3 || args.length > 5) {
+            System.err.println("Usage: --sort-records <file.csv> <key columns, '-' for descending> [stable|in-place] [out.csv]");
+            System.exit(2);
+        }
+        RecordSort.Order order = args.length > 3 && args[3].equals("in-place") ? RecordSort.Order.IN_PLACE : RecordSort.Order.STABLE;
+        try {
+            long t0 = System.nanoTime();
+            RecordTable table = RecordTable.load(Path.of(args[1]));
+            List<RecordSort.Key> keys = RecordSort.keys(table, args[2]);
+            long t1 = System.nanoTime();
+            int[] rank = RecordSort.ranks(table, keys);
+            long t2 = System.nanoTime();
+            RecordSort sort = new RecordSort(rank, rank, OpSink.NONE);
+            sort.sort(order);
+            long t3 = System.nanoTime();
+
+            System.out.println(table);
+            System.out.printf("keys %s: read in %d ms; %s sort in %d ms, %,.0f rows/s%n", args[2], (t2 - t1) / 1_000_000,
+                    order, (t3 - t2) / 1_000_000, table.rows() / Math.max(1e-9, (t3 - t2) / 1e9));
+            System.out.println((RecordSort.sorted(rank, sort.perm()) ? "in key order, " : "NOT IN KEY ORDER, ")
+                    + RecordSort.stability(rank, sort.perm()));
+            if(args.length > 4) {
+                table.write(Path.of(args[4]), sort.perm());
+                System.out.printf("wrote %s in %d ms (load took %d ms)%n", args[4], (System.nanoTime() - t3) / 1_000_000, (t1 - t0) / 1_000_000);
+            }
+        } catch(IOException | IllegalArgumentException e) {
+            System.err.println("Could not sort records: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Headless export of an animated run, a PNG per frame into a directory or one GIF:
+     * --export "Quick Sort" 200 42 quick.gif [seconds] [fps] [BARS|NODES]
+     */
+    private static void exportFrames(String[] args) {
+        if(args.length < 5 || args.length > 8) {
+            System.err.println("Usage: --export <algorithm> <size> <seed> <dir|file.gif> [seconds=20] [fps=30] [BARS|NODES]");
+            System.exit(2);
+        }
+        System.setProperty("java.awt.headless", "true");
+        String algo = args[1];
+        int[] data = SortEngine.randomInput(Integer.parseInt(args[2]), Long.parseLong(args[3]));
+        Path out = Path.of(args[4]);
+        double seconds = args.length > 5 ? Double.parseDouble(args[5]) : 20;
+        int fps = args.length > 6 ? Integer.parseInt(args[6]) : 30;
+        ViewMode view = args.length > 7 ? ViewMode.valueOf(args[7]) : CanvasPainter.useRaster(ViewMode.BARS, data.length) ? ViewMode.BARS : ViewMode.NODES;
+
+        OpBuffer ops = new OpBuffer();
+        SortEngine.sort(algo, data.clone(), ops);
+        int k = FrameExporter.opsPerFrame(ops.size(), seconds, fps);
+        FrameExporter exporter = new FrameExporter(WIDTH, HEIGHT, fps, view, Runtime.getRuntime().availableProcessors());
+
+        long start = System.nanoTime();
+        try {
+            long frames = exporter.export(algo, data, ops, k, out, (written, total) -> {
+                if(written % 100 == 0) System.out.printf("  %,d / ~%,d frames%n", written, total);
+            });
+            double secs = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%s: %,d frames (%.1f s of video, %d ops per frame) in %.1f s, %.1fx real time%n",
+                    algo, frames, frames / (double) fps, k, secs, frames / (double) fps / secs);
+        } catch(IOException | InterruptedException e) {
+            System.err.println("Could not export frames: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
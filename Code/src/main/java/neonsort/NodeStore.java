@@ -0,0 +1,354 @@
+package neonsort;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The visual nodes, stored as parallel primitive arrays instead of one object
+ * per node. Slot {@code i} holds the value, the current position, the target
+ * position and the highlight state (one of the {@link SortOps} states) of
+ * the node currently at index {@code i}, plus the parallel worker that last
+ * processed slot {@code i} (-1 for sequential runs).
+ *
+ * Threading: structural changes ({@link #add}, {@link #addAll},
+ * {@link #clear}) happen on the EDT while no sort is running. During a run
+ * the sorter thread only mutates slots, then bumps the volatile
+ * {@link #version}; the EDT reads the version before painting, so it sees
+ * every slot write made before that bump. A frame may still catch a swap
+ * half way, which only shows for a single frame.
+ *
+ * Stores of {@link BucketTree#MIN_SIZE} or more slots also keep a
+ * {@link BucketTree} of their values and states for level-of-detail
+ * drawing; every slot write marks its leaf before the version bump.
+ *
+ * Motion: every slot whose target changes joins an in-flight list, and
+ * {@link #update} only steps that list, dropping nodes as they arrive. When
+ * the last one lands, threads blocked in {@link #awaitSettled} are woken.
+ *
+ * Changes: once a painter has asked for them ({@link #drainChanged}), every
+ * slot whose value, state, worker or position changes is logged, so the
+ * painter can find the area to repaint in O(changed) rather than O(n).
+ * Changes to the store as a whole, or more than {@link #CHANGE_LOG} between
+ * two frames, just flag everything as changed.
+ */
+final class NodeStore {
+
+    private int[] value = new int[16];
+    private double[] x = new double[16];
+    private double[] y = new double[16];
+    private double[] targetX = new double[16];
+    private double[] targetY = new double[16];
+    private byte[] state = new byte[16];
+    private byte[] worker = new byte[16];
+
+    // In-flight slots, guarded by motionLock
+    private final ReentrantLock motionLock = new ReentrantLock();
+    private final Condition settled = motionLock.newCondition();
+    private int[] moving = new int[16];
+    private boolean[] inMotion = new boolean[16];
+    private int movingCount;
+
+    // Slots changed since the painter last drained them, guarded by motionLock
+    static final int CHANGE_LOG = 4096;
+    private final int[] changed = new int[CHANGE_LOG];
+    private boolean[] isChanged = new boolean[16];
+    private int changedCount;
+    private boolean allChanged = true;
+    private volatile boolean watched; // a painter drains the log; until then nothing is logged
+
+    private volatile int size;
+    private volatile long version;
+    private BucketTree buckets; // null below BucketTree.MIN_SIZE; replaced only by structural changes
+
+    int size() { return size; }
+    boolean isEmpty() { return size == 0; }
+    long version() { return version; }
+
+    /** The min/max/highlight tree over the slots, or null for small stores. */
+    BucketTree buckets() { return buckets; }
+
+    /** Whether any node is still gliding towards its target (a hint; exact on the thread calling update). */
+    boolean inFlight() { return movingCount > 0; }
+
+    int value(int i) { return value[i]; }
+    byte state(int i) { return state[i]; }
+    int worker(int i) { return worker[i]; }
+    double x(int i) { return x[i]; }
+    double y(int i) { return y[i]; }
+    double targetX(int i) { return targetX[i]; }
+    double targetY(int i) { return targetY[i]; }
+
+    void setValue(int i, int v) { value[i] = v; touch(i); version++; }
+    void setState(int i, byte s) { state[i] = s; touch(i); version++; }
+    void setWorker(int i, int w) { worker[i] = (byte) w; touch(i); version++; }
+    void setTargetX(int i, double tx) { setTarget(i, tx, targetY[i]); }
+    void setTargetY(int i, double ty) { setTarget(i, targetX[i], ty); }
+
+    void setTarget(int i, double tx, double ty) {
+        targetX[i] = tx;
+        targetY[i] = ty;
+        version++;
+        motionLock.lock();
+        try { startMoving(i); } finally { motionLock.unlock(); }
+    }
+
+    /** Resets every node to the given state. */
+    void fillState(byte s) {
+        Arrays.fill(state, 0, size, s);
+        if(buckets != null) buckets.markAll();
+        changedAll();
+        version++;
+    }
+
+    /** Tags every node with the given worker (-1 clears the tags). */
+    void fillWorker(int w) {
+        Arrays.fill(worker, 0, size, (byte) w);
+        if(buckets != null) buckets.markAll();
+        changedAll();
+        version++;
+    }
+
+    /** Sets the target height of every node. */
+    void fillTargetY(double ty) {
+        int n = size;
+        Arrays.fill(targetY, 0, n, ty);
+        version++;
+        motionLock.lock();
+        try {
+            for(int i = 0; i < n; i++) startMoving(i);
+        } finally {
+            motionLock.unlock();
+        }
+    }
+
+    /**
+     * Exchanges the nodes in slots i and j. The value, position and state
+     * travel with the node; the horizontal target belongs to the slot, so the
+     * two nodes glide into each other's place. The worker tag stays with the
+     * slot as well.
+     */
+    void swap(int i, int j) {
+        int v = value[i]; value[i] = value[j]; value[j] = v;
+        byte s = state[i]; state[i] = state[j]; state[j] = s;
+        double t = x[i]; x[i] = x[j]; x[j] = t;
+        t = y[i]; y[i] = y[j]; y[j] = t;
+        t = targetY[i]; targetY[i] = targetY[j]; targetY[j] = t;
+        BucketTree tree = buckets;
+        if(tree != null) {
+            tree.mark(i);
+            tree.mark(j);
+        }
+        version++;
+        motionLock.lock();
+        try {
+            logChange(i);
+            logChange(j);
+            startMoving(i);
+            startMoving(j);
+        } finally {
+            motionLock.unlock();
+        }
+    }
+
+    void add(int v, double px, double py) {
+        ensureCapacity(size + 1);
+        put(size, v, px, py);
+        size = size + 1;
+        resized();
+        changedAll();
+        version++;
+    }
+
+    void addAll(int[] values, double px, double py) {
+        int n = size;
+        ensureCapacity(n + values.length);
+        for(int k = 0; k < values.length; k++) put(n + k, values[k], px, py);
+        size = n + values.length;
+        resized();
+        changedAll();
+        version++;
+    }
+
+    void clear() {
+        size = 0;
+        buckets = null;
+        version++;
+        motionLock.lock();
+        try {
+            for(int k = 0; k < movingCount; k++) inMotion[moving[k]] = false;
+            movingCount = 0;
+            allChanged = true;
+            settled.signalAll();
+        } finally {
+            motionLock.unlock();
+        }
+    }
+
+    /** Copy of the current values, in slot order. */
+    int[] values() {
+        return Arrays.copyOf(value, size);
+    }
+
+    /** Copy of the current highlight states, in slot order. */
+    byte[] states() {
+        return Arrays.copyOf(state, size);
+    }
+
+    /** Copy of the current worker tags, in slot order. */
+    byte[] workers() {
+        return Arrays.copyOf(worker, size);
+    }
+
+    /**
+     * Overwrites every slot's value, state and worker at once, as copied out
+     * by {@link #values}, {@link #states} and {@link #workers}. Positions and
+     * targets stay, so nothing moves.
+     */
+    void restore(int[] values, byte[] states, byte[] workers) {
+        int n = Math.min(size, values.length);
+        System.arraycopy(values, 0, value, 0, n);
+        System.arraycopy(states, 0, state, 0, n);
+        System.arraycopy(workers, 0, worker, 0, n);
+        if(buckets != null) buckets.markAll();
+        changedAll();
+        version++;
+    }
+
+    /**
+     * Moves every in-flight node a fraction of the way towards its target.
+     * Nodes within a pixel snap onto it and leave the in-flight list.
+     * Costs O(moving nodes), not O(n).
+     */
+    void update(double speed) {
+        motionLock.lock();
+        try {
+            if(movingCount == 0) return;
+            int k = 0;
+            while(k < movingCount) {
+                int i = moving[k];
+                double dx = targetX[i] - x[i];
+                double dy = targetY[i] - y[i];
+                logChange(i);
+                if(Math.abs(dx) <= 1 && Math.abs(dy) <= 1) {
+                    x[i] = targetX[i];
+                    y[i] = targetY[i];
+                    inMotion[i] = false;
+                    moving[k] = moving[--movingCount];
+                } else {
+                    x[i] += dx * speed;
+                    y[i] += dy * speed;
+                    k++;
+                }
+            }
+            if(movingCount == 0) settled.signalAll();
+        } finally {
+            motionLock.unlock();
+        }
+    }
+
+    /**
+     * Copies the slots whose value, state, worker or position changed since
+     * the last call into {@code out}, which holds {@link #CHANGE_LOG}, and
+     * forgets them. Returns how many, or -1 when the caller has to look at
+     * every slot: on the first call, after a change to the whole store, or
+     * when more slots changed than the log holds. For the one painter that
+     * draws this store.
+     */
+    int drainChanged(int[] out) {
+        motionLock.lock();
+        try {
+            watched = true;
+            int n = changedCount;
+            for(int k = 0; k < n; k++) isChanged[changed[k]] = false;
+            changedCount = 0;
+            if(allChanged) {
+                allChanged = false;
+                return -1;
+            }
+            System.arraycopy(changed, 0, out, 0, n);
+            return n;
+        } finally {
+            motionLock.unlock();
+        }
+    }
+
+    /** Blocks until no node is in flight. */
+    void awaitSettled() throws InterruptedException {
+        motionLock.lock();
+        try {
+            while(movingCount > 0) settled.await();
+        } finally {
+            motionLock.unlock();
+        }
+    }
+
+    private void touch(int i) {
+        BucketTree t = buckets;
+        if(t != null) t.mark(i);
+        if(!watched) return;
+        motionLock.lock();
+        try { logChange(i); } finally { motionLock.unlock(); }
+    }
+
+    /** Call with motionLock held. */
+    private void logChange(int i) {
+        if(!watched || allChanged || isChanged[i]) return;
+        if(changedCount == CHANGE_LOG) {
+            allChanged = true;
+            return;
+        }
+        isChanged[i] = true;
+        changed[changedCount++] = i;
+    }
+
+    private void changedAll() {
+        if(!watched) return;
+        motionLock.lock();
+        try { allChanged = true; } finally { motionLock.unlock(); }
+    }
+
+    private void resized() {
+        int n = size;
+        if(n < BucketTree.MIN_SIZE) {
+            buckets = null;
+            return;
+        }
+        if(buckets == null) buckets = new BucketTree(this);
+        buckets.rebuild(n);
+    }
+
+    private void startMoving(int i) {
+        if(inMotion[i] || i >= size) return; // a cleared store never blocks awaitSettled again
+        inMotion[i] = true;
+        moving[movingCount++] = i;
+    }
+
+    private void put(int i, int v, double px, double py) {
+        value[i] = v;
+        x[i] = targetX[i] = px;
+        y[i] = targetY[i] = py;
+        state[i] = SortOps.DEFAULT;
+        worker[i] = -1;
+    }
+
+    private void ensureCapacity(int needed) {
+        if(needed <= value.length) return;
+        int cap = Math.max(needed, value.length * 2);
+        value = Arrays.copyOf(value, cap);
+        x = Arrays.copyOf(x, cap);
+        y = Arrays.copyOf(y, cap);
+        targetX = Arrays.copyOf(targetX, cap);
+        targetY = Arrays.copyOf(targetY, cap);
+        state = Arrays.copyOf(state, cap);
+        worker = Arrays.copyOf(worker, cap);
+        motionLock.lock();
+        try {
+            moving = Arrays.copyOf(moving, cap);
+            inMotion = Arrays.copyOf(inMotion, cap);
+            isChanged = Arrays.copyOf(isChanged, cap);
+        } finally {
+            motionLock.unlock();
+        }
+    }
+}
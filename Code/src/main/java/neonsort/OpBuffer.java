@@ -0,0 +1,55 @@
+package neonsort;
+
+import java.util.Arrays;
+
+/**
+ * Growable in-memory recording of a sort run. Operations are kept as raw
+ * longs so a few million of them cost a few megabytes and no objects.
+ */
+final class OpBuffer implements OpSink, OpSource {
+
+    private long[] ops;
+    private int size;
+
+    private long comparisons;
+    private long swaps;
+    private long writes;
+
+    OpBuffer() {
+        this(1024);
+    }
+
+    OpBuffer(int initialCapacity) {
+        ops = new long[Math.max(16, initialCapacity)];
+    }
+
+    @Override
+    public void accept(long op) {
+        if(size == ops.length) {
+            if(size == Integer.MAX_VALUE - 8) throw new IllegalStateException("Operation buffer is full");
+            ops = Arrays.copyOf(ops, (int) Math.min(Integer.MAX_VALUE - 8, size * 2L));
+        }
+        ops[size++] = op;
+
+        switch(SortOps.type(op)) {
+            case SortOps.COMPARE -> comparisons++;
+            case SortOps.SWAP -> swaps++;
+            case SortOps.WRITE -> writes++;
+        }
+    }
+
+    @Override
+    public long size() { return size; }
+
+    @Override
+    public long get(long index) { return ops[(int) index]; }
+
+    long comparisons() { return comparisons; }
+    long swaps() { return swaps; }
+    long writes() { return writes; }
+
+    void clear() {
+        size = 0;
+        comparisons = swaps = writes = 0;
+    }
+}
@@ -0,0 +1,13 @@
+package neonsort;
+
+/**
+ * Receives the packed operations (see {@link SortOps}) emitted by a sort.
+ */
+@FunctionalInterface
+public interface OpSink {
+
+    /** Discards everything - used when only the sorted result matters. */
+    OpSink NONE = op -> {};
+
+    void accept(long op);
+}
@@ -0,0 +1,12 @@
+package neonsort;
+
+/**
+ * Random-access view over a recorded run, either in memory ({@link OpBuffer})
+ * or memory-mapped from disk ({@link TraceReader}).
+ */
+interface OpSource {
+
+    long size();
+
+    long get(long index);
+}
@@ -0,0 +1,46 @@
+package neonsort;
+
+import java.awt.Color;
+
+/**
+ * Shared colour palette, also used by code that paints without a window.
+ */
+final class Palette {
+
+    static final Color BG_COLOR = new Color(18, 20, 24);
+    static final Color PANEL_COLOR = new Color(25, 28, 33);
+    static final Color BORDER_COLOR = new Color(40, 44, 52);
+
+    static final Color COL_DEFAULT = new Color(120, 130, 150);
+    static final Color COL_COMPARE = new Color(50, 200, 255); // Cyan
+    static final Color COL_SORTED = new Color(0, 220, 130);   // Green
+    static final Color COL_PIVOT = new Color(255, 80, 120);   // Pink
+    static final Color COL_POINTER = new Color(255, 180, 50); // Orange
+    static final Color COL_TEXT_BRIGHT = new Color(240, 240, 240);
+
+    // Node state (SortOps.DEFAULT/COMPARING/SORTED/PIVOT) -> colour
+    static final Color[] STATE_COLORS = {COL_DEFAULT, COL_COMPARE, COL_SORTED, COL_PIVOT};
+    static final int[] STATE_RGB = {
+            COL_DEFAULT.getRGB(), COL_COMPARE.getRGB(), COL_SORTED.getRGB(), COL_PIVOT.getRGB()};
+
+    // Parallel worker id -> colour, cycled; replaces COL_DEFAULT for nodes a worker has touched
+    static final Color[] WORKER_COLORS = {
+            new Color(150, 110, 255), new Color(255, 140, 60), new Color(70, 150, 255), new Color(230, 90, 200),
+            new Color(200, 200, 70), new Color(90, 210, 210), new Color(180, 120, 80), new Color(140, 170, 110)};
+    static final int[] WORKER_RGB = new int[WORKER_COLORS.length];
+
+    static {
+        for(int i = 0; i < WORKER_COLORS.length; i++) WORKER_RGB[i] = WORKER_COLORS[i].getRGB();
+    }
+
+    /** Colour of a node in the given state, tinted by its worker while it is in the default state. */
+    static Color nodeColor(byte state, int worker) {
+        return (state == SortOps.DEFAULT && worker >= 0) ? WORKER_COLORS[worker % WORKER_COLORS.length] : STATE_COLORS[state];
+    }
+
+    static int nodeRgb(byte state, int worker) {
+        return (state == SortOps.DEFAULT && worker >= 0) ? WORKER_RGB[worker % WORKER_RGB.length] : STATE_RGB[state];
+    }
+
+    private Palette() {}
+}
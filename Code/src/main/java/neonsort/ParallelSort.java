@@ -0,0 +1,300 @@
+package neonsort;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Fork/join versions of merge sort and quick sort on the common pool.
+ *
+ * Ranges above the cutoff are split into {@link RecursiveAction}s; below it
+ * the sequential code does the work. Quick sort is the median-of-3, 3-way
+ * {@link HardenedQuickSort}: each task forks only the smaller side and loops
+ * on the larger, and hands a range to heap sort once the depth budget runs
+ * out, so no worker's stack (the pool's, not the sorter's) grows past
+ * O(log n) even on sorted input.
+ *
+ * When a run is being recorded, every task writes its ops into its own
+ * segments tagged with the worker that ran it, with each subtask kept in
+ * its parent's list at the point it was forked. That tree is walked once
+ * afterwards in sequential program order, so the stream nests ENTER/LEAVE
+ * exactly like the single-threaded one, with a {@link SortOps#WORKER} op
+ * wherever the worker changes. Worker ids are renumbered 0, 1, 2... in
+ * order of appearance.
+ */
+final class ParallelSort {
+
+    private static final int MIN_CUTOFF = 8;
+    private static final int MAX_CUTOFF = 8192;
+    private static final int TASKS_PER_WORKER = 8;
+
+    private ParallelSort() {}
+
+    static void mergeSort(int[] a, OpSink out) {
+        if(a.length < 2) return;
+        Run run = new Run(a, new int[a.length], out);
+        run.execute(new MergeSortTask(run, 0, a.length - 1));
+    }
+
+    static void quickSort(int[] a, OpSink out) {
+        if(a.length < 2) return;
+        Run run = new Run(a, null, out);
+        run.execute(new QuickSortTask(run, 0, a.length - 1, HardenedQuickSort.depthLimit(a.length)));
+        new SortEngine(a, out).clearPointers();
+    }
+
+    /** Sequential grain: enough tasks to keep every worker busy, but never tiny ones. */
+    static int cutoff(int n, int parallelism) {
+        int c = n / (parallelism * TASKS_PER_WORKER);
+        return Math.max(MIN_CUTOFF, Math.min(MAX_CUTOFF, c));
+    }
+
+    /** An entry in a task's recording: ops it produced itself, or a subtask's. */
+    private interface Part {}
+
+    private record Segment(int worker, OpBuffer ops) implements Part {}
+
+    private static final class Run {
+        final int[] a;
+        final int[] aux;
+        final OpSink out;
+        final boolean recording;
+        final int cutoff;
+        final SortEngine silent;
+        final HardenedQuickSort silentQuick;
+        final ForkJoinPool pool = ForkJoinPool.commonPool();
+
+        Run(int[] a, int[] aux, OpSink out) {
+            this.a = a;
+            this.aux = aux;
+            this.out = out;
+            this.recording = out != OpSink.NONE;
+            this.cutoff = cutoff(a.length, pool.getParallelism());
+            this.silent = new SortEngine(a, OpSink.NONE);
+            this.silentQuick = new HardenedQuickSort(a, OpSink.NONE, HardenedQuickSort.Pivot.MEDIAN_OF_3);
+        }
+
+        void execute(Task root) {
+            pool.invoke(root);
+            if(!recording) return;
+
+            Map<Integer, Integer> ids = new HashMap<>();
+            int current = Integer.MIN_VALUE;
+            // Depth-first over the task tree, without recursion
+            Deque<Iterator<Part>> stack = new ArrayDeque<>();
+            stack.push(root.parts.iterator());
+            while(!stack.isEmpty()) {
+                Iterator<Part> it = stack.peek();
+                if(!it.hasNext()) {
+                    stack.pop();
+                    continue;
+                }
+                Part part = it.next();
+                if(part instanceof Task child) {
+                    stack.push(child.parts.iterator());
+                    continue;
+                }
+                Segment s = (Segment) part;
+                int id = ids.computeIfAbsent(s.worker(), k -> ids.size());
+                if(id != current) {
+                    out.accept(SortOps.worker(id));
+                    current = id;
+                }
+                OpBuffer ops = s.ops();
+                for(long k = 0; k < ops.size(); k++) out.accept(ops.get(k));
+            }
+        }
+    }
+
+    private abstract static class Task extends RecursiveAction implements Part {
+        final Run run;
+        final List<Part> parts;
+
+        Task(Run run) {
+            this.run = run;
+            this.parts = run.recording ? new ArrayList<>() : List.of();
+        }
+
+        /** A fresh sink for the ops this thread is about to produce, placed after everything recorded so far. */
+        OpSink segment() {
+            if(!run.recording) return OpSink.NONE;
+            OpBuffer buf = new OpBuffer(64);
+            parts.add(new Segment(workerId(), buf));
+            return buf;
+        }
+
+        SortEngine engine() {
+            return run.recording ? new SortEngine(run.a, segment()) : run.silent;
+        }
+
+        HardenedQuickSort quick() {
+            return run.recording ? new HardenedQuickSort(run.a, segment(), HardenedQuickSort.Pivot.MEDIAN_OF_3) : run.silentQuick;
+        }
+
+        void forkBoth(Task left, Task right) {
+            invokeAll(left, right);
+            adopt(left);
+            adopt(right);
+        }
+
+        /** Places a subtask's ops after everything this task recorded so far; they are read once the run is over. */
+        void adopt(Task child) {
+            if(run.recording) parts.add(child);
+        }
+
+        private static int workerId() {
+            return Thread.currentThread() instanceof ForkJoinWorkerThread w ? w.getPoolIndex() : -1;
+        }
+    }
+
+    // --- MERGE SORT ---
+
+    private static final class MergeSortTask extends Task {
+        private final int l, r;
+
+        MergeSortTask(Run run, int l, int r) {
+            super(run);
+            this.l = l;
+            this.r = r;
+        }
+
+        @Override
+        protected void compute() {
+            if(r - l + 1 <= run.cutoff) {
+                engine().mergeSortRec(run.aux, l, r);
+                return;
+            }
+            segment().accept(SortOps.enter(l, r));
+            int mid = (l + r) >>> 1;
+            forkBoth(new MergeSortTask(run, l, mid), new MergeSortTask(run, mid + 1, r));
+
+            System.arraycopy(run.a, l, run.aux, l, r - l + 1);
+            MergeTask merge = new MergeTask(run, l, mid, mid + 1, r, l);
+            merge.invoke();
+            adopt(merge);
+            segment().accept(SortOps.leave(l, r));
+        }
+    }
+
+    /**
+     * Merges aux[i..iEnd] and aux[j..jEnd] into a from slot k. Large merges
+     * split the longer run at its middle and binary-search the matching cut
+     * in the other, giving two independent merges. Ties go left, so the
+     * result is as stable as the sequential merge.
+     */
+    private static final class MergeTask extends Task {
+        private final int i, iEnd, j, jEnd, k;
+
+        MergeTask(Run run, int i, int iEnd, int j, int jEnd, int k) {
+            super(run);
+            this.i = i;
+            this.iEnd = iEnd;
+            this.j = j;
+            this.jEnd = jEnd;
+            this.k = k;
+        }
+
+        @Override
+        protected void compute() {
+            int leftLen = iEnd - i + 1, rightLen = jEnd - j + 1;
+            if(leftLen + rightLen <= run.cutoff) {
+                engine().mergeRuns(run.aux, i, iEnd, j, jEnd, k);
+                return;
+            }
+            int[] aux = run.aux;
+            int mi, mj;
+            if(leftLen >= rightLen) {
+                mi = (i + iEnd) >>> 1;
+                mj = lowerBound(aux, j, jEnd + 1, aux[mi]); // right values < pivot go first
+                mi++;
+            } else {
+                mj = (j + jEnd) >>> 1;
+                mi = upperBound(aux, i, iEnd + 1, aux[mj]); // left values <= pivot go first
+                mj++;
+            }
+            int leftCount = (mi - i) + (mj - j);
+            forkBoth(new MergeTask(run, i, mi - 1, j, mj - 1, k),
+                     new MergeTask(run, mi, iEnd, mj, jEnd, k + leftCount));
+        }
+
+        private static int lowerBound(int[] x, int from, int to, int key) {
+            while(from < to) {
+                int m = (from + to) >>> 1;
+                if(x[m] < key) from = m + 1;
+                else to = m;
+            }
+            return from;
+        }
+
+        private static int upperBound(int[] x, int from, int to, int key) {
+            while(from < to) {
+                int m = (from + to) >>> 1;
+                if(x[m] <= key) from = m + 1;
+                else to = m;
+            }
+            return from;
+        }
+    }
+
+    // --- QUICK SORT ---
+
+    private static final class QuickSortTask extends Task {
+        private final int low, high, depth;
+
+        QuickSortTask(Run run, int low, int high, int depth) {
+            super(run);
+            this.low = low;
+            this.high = high;
+            this.depth = depth;
+        }
+
+        /** The same partitions, in the same order, as the sequential sort's loop; only the smaller sides run elsewhere. */
+        @Override
+        protected void compute() {
+            int lo = low, hi = high, d = depth;
+            List<QuickSortTask> forked = new ArrayList<>();
+            while(hi - lo + 1 > run.cutoff && d > 0) {
+                d--;
+                int[] eq = quick().split(lo, hi);
+                QuickSortTask side;
+                if(eq[0] - lo < hi - eq[1]) {
+                    side = new QuickSortTask(run, lo, eq[0] - 1, d);
+                    lo = eq[1] + 1;
+                } else {
+                    side = new QuickSortTask(run, eq[1] + 1, hi, d);
+                    hi = eq[0] - 1;
+                }
+                if(side.low > side.high) continue;
+                side.fork();
+                adopt(side);
+                forked.add(side);
+            }
+            quick().sort(lo, hi, d);
+            for(int k = forked.size() - 1; k >= 0; k--) forked.get(k).join();
+        }
+    }
+
+    // --- PROVIDERS ---
+
+    public static final class ParallelMergeSort implements SortAlgorithm {
+        @Override public String name() { return "Parallel Merge Sort"; }
+        @Override public String complexity() { return "Work: O(n log n) | Span: O(log³ n) | Colors show the worker thread"; }
+        @Override public void sort(int[] a, OpSink out) { mergeSort(a, out); }
+        @Override public boolean usesLevels() { return true; }
+        @Override public String sequential() { return "Merge Sort"; }
+    }
+
+    public static final class ParallelQuickSort implements SortAlgorithm {
+        @Override public String name() { return "Parallel Quick Sort"; }
+        @Override public String complexity() { return "Work: O(n log n) | Span: O(n) | Colors show the worker thread"; }
+        @Override public void sort(int[] a, OpSink out) { quickSort(a, out); }
+        @Override public String sequential() { return "3-Way Quick Sort (median of 3)"; }
+    }
+}
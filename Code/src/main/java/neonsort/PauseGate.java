@@ -0,0 +1,94 @@
+package neonsort;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pause/resume switch shared by every replay thread. The running case is a
+ * single volatile read; paused threads park on a lock condition instead of a
+ * monitor, so paused virtual threads give their carrier back.
+ *
+ * While paused, {@link #step} lets exactly one more op through: the replay
+ * takes it at the start of its next op in {@link #awaitOp}, and the waits
+ * inside that op then pass until the op is done. An interrupt ends a wait
+ * with the thread's interrupt status set, so a stopped replay returns
+ * instead of staying parked.
+ */
+final class PauseGate {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition resumed = lock.newCondition();
+    private volatile boolean paused;
+    private volatile boolean stepping; // inside the op a step let through
+    private int steps;                 // steps not taken yet; guarded by lock
+
+    boolean isPaused() { return paused; }
+
+    void pause() { paused = true; }
+
+    void resume() {
+        lock.lock();
+        try {
+            paused = false;
+            steps = 0;
+            resumed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Lets one more op through a paused gate; does nothing while running. */
+    void step() {
+        lock.lock();
+        try {
+            if(!paused) return;
+            steps++;
+            resumed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Takes a step for a caller that applies the op itself instead of waiting in {@link #awaitOp}. */
+    boolean takeStep() {
+        lock.lock();
+        try {
+            if(steps == 0) return false;
+            steps--;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Blocks at the start of an op while paused, until resumed or stepped. */
+    void awaitOp() {
+        if(stepping) stepping = false;
+        if(!paused) return;
+        lock.lock();
+        try {
+            while(paused && steps == 0) resumed.await();
+            if(paused) {
+                steps--;
+                stepping = true;
+            }
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Blocks within an op while paused, unless a step let that op through. */
+    void await() {
+        if(!paused || stepping) return;
+        lock.lock();
+        try {
+            while(paused) resumed.await();
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
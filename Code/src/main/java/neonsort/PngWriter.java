@@ -0,0 +1,89 @@
+package neonsort;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Minimal PNG encoder for TYPE_INT_RGB frames: 8-bit RGB, no row filter,
+ * fastest deflate. Canvas frames are mostly flat background, which deflate
+ * shrinks well without filtering, and skipping ImageIO's per-row filter
+ * search makes a frame several times cheaper to write. One instance per
+ * encoder thread; it keeps its buffers between frames.
+ */
+final class PngWriter {
+
+    private static final byte[] SIGNATURE = {(byte) 137, 80, 78, 71, 13, 10, 26, 10};
+
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private final ByteArrayOutputStream idat = new ByteArrayOutputStream(1 << 20);
+    private final CRC32 crc = new CRC32();
+    private byte[] row = new byte[0];
+
+    void write(BufferedImage img, Path file) throws IOException {
+        try(OutputStream out = Files.newOutputStream(file)) {
+            write(img, out);
+        }
+    }
+
+    void write(BufferedImage img, OutputStream os) throws IOException {
+        int w = img.getWidth(), h = img.getHeight();
+        int[] px = ((DataBufferInt) img.getRaster().getDataBuffer()).getData();
+        if(row.length != 1 + w * 3) row = new byte[1 + w * 3];
+
+        idat.reset();
+        deflater.reset();
+        try(DeflaterOutputStream z = new DeflaterOutputStream(idat, deflater, 1 << 16)) {
+            for(int y = 0; y < h; y++) {
+                int o = 1; // row[0] = 0: no filter
+                for(int p = y * w, end = p + w; p < end; p++) {
+                    int c = px[p];
+                    row[o++] = (byte) (c >> 16);
+                    row[o++] = (byte) (c >> 8);
+                    row[o++] = (byte) c;
+                }
+                z.write(row);
+            }
+        }
+
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os, 1 << 16));
+        out.write(SIGNATURE);
+        byte[] header = new byte[13];
+        putInt(header, 0, w);
+        putInt(header, 4, h);
+        header[8] = 8;  // bits per channel
+        header[9] = 2;  // RGB
+        chunk(out, "IHDR", header, header.length);
+        chunk(out, "IDAT", idat.toByteArray(), idat.size());
+        chunk(out, "IEND", header, 0);
+        out.flush();
+    }
+
+    private void chunk(DataOutputStream out, String type, byte[] data, int len) throws IOException {
+        byte[] t = type.getBytes(StandardCharsets.US_ASCII);
+        out.writeInt(len);
+        out.write(t);
+        out.write(data, 0, len);
+        crc.reset();
+        crc.update(t);
+        crc.update(data, 0, len);
+        out.writeInt((int) crc.getValue());
+    }
+
+    private static void putInt(byte[] b, int at, int v) {
+        b[at] = (byte) (v >>> 24);
+        b[at + 1] = (byte) (v >>> 16);
+        b[at + 2] = (byte) (v >>> 8);
+        b[at + 3] = (byte) v;
+    }
+}
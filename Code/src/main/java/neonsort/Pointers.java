@@ -0,0 +1,26 @@
+package neonsort;
+
+/**
+ * The A/B scan pointers and the pivot/key pointer of a run. Written by the
+ * sorter thread, read by whoever paints.
+ */
+final class Pointers {
+
+    volatile int a = -1;
+    volatile int b = -1;
+    volatile int pivot = -1;
+    volatile String aLabel = "";
+    volatile String bLabel = "";
+
+    void set(int slot, String label, int idx) {
+        switch(slot) {
+            case SortOps.PTR_A -> { aLabel = label; a = idx; }
+            case SortOps.PTR_B -> { bLabel = label; b = idx; }
+            case SortOps.PTR_PIVOT -> pivot = idx;
+        }
+    }
+
+    void clear() {
+        a = -1; b = -1; pivot = -1;
+    }
+}
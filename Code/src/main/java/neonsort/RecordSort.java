@@ -0,0 +1,348 @@
+package neonsort;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Sorts the rows of a {@link RecordTable} by one or more key columns
+ * without moving them: an argsort of a permutation {@code int[]}.
+ *
+ * The key columns are read once into primitive arrays and folded into one
+ * dense int rank per row (equal keys, equal rank), column by column:
+ * integers and decimals compare as numbers, anything else as text, and a
+ * column named with a leading '-' sorts descending. From then on the sort
+ * compares two ints per step and moves one int per record, however wide
+ * the records are. The payload is read only when the sorted table is
+ * written out, once per row, by {@link RecordTable#write}.
+ *
+ * Two orders are offered: a stable ping-pong merge sort, which keeps rows
+ * with equal keys in file order, and an in-place 3-way quick sort, which
+ * needs no buffer but does not. {@link #stability} checks the result
+ * rather than trusting the label. Ops are reported as if the key array
+ * itself were sorted, so the canvas shows each row's key moving.
+ */
+final class RecordSort {
+
+    static final int CUTOFF = 8;
+
+    enum Order {
+        STABLE("Stable (merge)"),
+        IN_PLACE("In place (3-way quick)");
+
+        final String label;
+
+        Order(String label) {
+            this.label = label;
+        }
+
+        @Override public String toString() { return label; }
+    }
+
+    /** One key column; {@code descending} for a leading '-' in the spec. */
+    record Key(int column, boolean descending) {}
+
+    private final int[] rank;    // per row: position of its composite key among the distinct keys
+    private final int[] display; // per row: the value its node shows
+    private final OpSink out;
+    private final int[] perm;
+
+    RecordSort(int[] rank, int[] display, OpSink out) {
+        this.rank = rank;
+        this.display = display;
+        this.out = out;
+        this.perm = new int[rank.length];
+        for(int i = 0; i < perm.length; i++) perm[i] = i;
+    }
+
+    /** Rows in sorted order once {@link #sort} has run. */
+    int[] perm() { return perm; }
+
+    void sort(Order order) {
+        if(perm.length < 2) return;
+        if(order == Order.STABLE) {
+            int[] aux = perm.clone();
+            mergeSort(aux, perm, 0, perm.length - 1);
+        } else {
+            quickSort(0, perm.length - 1);
+        }
+        out.accept(SortOps.pointer(SortOps.PTR_A, SortOps.LBL_NONE, -1));
+        out.accept(SortOps.pointer(SortOps.PTR_B, SortOps.LBL_NONE, -1));
+    }
+
+    // --- KEYS ---
+
+    /** Parses "city, -age" or "3,-1" (1-based) against the table's header. */
+    static List<Key> keys(RecordTable table, String spec) {
+        List<Key> keys = new ArrayList<>();
+        for(String part : spec.split(",")) {
+            String name = part.trim();
+            if(name.isEmpty()) continue;
+            boolean desc = name.startsWith("-");
+            if(desc) name = name.substring(1).trim();
+            keys.add(new Key(table.column(name), desc));
+        }
+        if(keys.isEmpty()) throw new IllegalArgumentException("Name at least one key column");
+        return keys;
+    }
+
+    /** The composite key of every row as a dense rank: rows compare like their ranks. */
+    static int[] ranks(RecordTable table, List<Key> keys) {
+        int n = table.rows();
+        int[] cols = new int[keys.size()];
+        for(int k = 0; k < cols.length; k++) cols[k] = keys.get(k).column();
+        int[][] start = new int[cols.length][n], end = new int[cols.length][n];
+        table.locate(cols, start, end);
+
+        int[] rank = null;
+        for(int k = 0; k < cols.length; k++) {
+            int[] column = columnRanks(table, start[k], end[k]);
+            if(keys.get(k).descending()) {
+                int top = max(column);
+                for(int r = 0; r < n; r++) column[r] = top - column[r];
+            }
+            if(rank == null) {
+                rank = column;
+                continue;
+            }
+            // Ties on the earlier columns are broken by this one
+            long[] pair = new long[n];
+            for(int r = 0; r < n; r++) pair[r] = (long) rank[r] << 32 | column[r];
+            rank = denseRanks(pair);
+        }
+        return rank;
+    }
+
+    /**
+     * What each row's node shows: the key itself for a single ascending
+     * column of non-negative ints, otherwise the rank plus one.
+     */
+    static int[] display(RecordTable table, List<Key> keys, int[] rank) {
+        if(keys.size() == 1 && !keys.get(0).descending()) {
+            int n = table.rows();
+            int[][] start = new int[1][n], end = new int[1][n];
+            table.locate(new int[]{keys.get(0).column()}, start, end);
+            int[] values = new int[n];
+            boolean ints = true;
+            for(int r = 0; r < n && ints; r++) {
+                long v = parseLong(table, start[0][r], end[0][r]);
+                ints = v >= 0 && v <= Integer.MAX_VALUE;
+                values[r] = (int) v;
+            }
+            if(ints) return values;
+        }
+        int[] values = new int[rank.length];
+        for(int r = 0; r < values.length; r++) values[r] = rank[r] + 1;
+        return values;
+    }
+
+    /** Ranks of one column: as numbers if every non-empty field is one, else as text. Empty fields come first. */
+    private static int[] columnRanks(RecordTable table, int[] start, int[] end) {
+        int n = start.length;
+        long[] numbers = new long[n];
+        boolean integral = true;
+        for(int r = 0; r < n && integral; r++) {
+            long v = parseLong(table, start[r], end[r]);
+            integral = v != NOT_A_NUMBER;
+            numbers[r] = v;
+        }
+        if(integral) return denseRanks(numbers);
+
+        boolean numeric = true;
+        for(int r = 0; r < n && numeric; r++) {
+            String s = table.field(start[r], end[r]).trim();
+            if(s.isEmpty()) {
+                numbers[r] = Long.MIN_VALUE;
+                continue;
+            }
+            try {
+                numbers[r] = sortable(Double.parseDouble(s));
+            } catch(NumberFormatException e) {
+                numeric = false;
+            }
+        }
+        if(numeric) return denseRanks(numbers);
+
+        String[] text = new String[n];
+        for(int r = 0; r < n; r++) text[r] = table.field(start[r], end[r]);
+        String[] distinct = text.clone();
+        Arrays.sort(distinct);
+        int d = 0;
+        for(int k = 0; k < n; k++) {
+            if(d == 0 || !distinct[k].equals(distinct[d - 1])) distinct[d++] = distinct[k];
+        }
+        int[] ranks = new int[n];
+        for(int r = 0; r < n; r++) ranks[r] = Arrays.binarySearch(distinct, 0, d, text[r]);
+        return ranks;
+    }
+
+    /** Position of each value among the distinct values, in ascending order. */
+    static int[] denseRanks(long[] values) {
+        long[] distinct = values.clone();
+        Arrays.sort(distinct);
+        int d = 0;
+        for(int k = 0; k < distinct.length; k++) {
+            if(d == 0 || distinct[k] != distinct[d - 1]) distinct[d++] = distinct[k];
+        }
+        int[] ranks = new int[values.length];
+        for(int r = 0; r < values.length; r++) ranks[r] = Arrays.binarySearch(distinct, 0, d, values[r]);
+        return ranks;
+    }
+
+    /** A double as a long with the same order, -0.0 equal to 0.0 and every NaN equal, after all numbers. */
+    private static long sortable(double v) {
+        if(Double.isNaN(v)) return Long.MAX_VALUE;
+        if(v == 0) v = 0.0;
+        long bits = Double.doubleToLongBits(v);
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+
+    private static final long NOT_A_NUMBER = Long.MAX_VALUE;
+
+    /**
+     * An integer field parsed straight from the file bytes: optional quotes,
+     * spaces and sign, up to 18 digits. Empty is {@link Long#MIN_VALUE},
+     * anything else {@link #NOT_A_NUMBER}.
+     */
+    private static long parseLong(RecordTable table, int start, int end) {
+        while(start < end && (table.at(start) == ' ' || table.at(start) == '"')) start++;
+        while(end > start && (table.at(end - 1) == ' ' || table.at(end - 1) == '"')) end--;
+        if(start == end) return Long.MIN_VALUE;
+        boolean neg = table.at(start) == '-';
+        if(neg || table.at(start) == '+') start++;
+        if(start == end || end - start > 18) return NOT_A_NUMBER;
+        long v = 0;
+        for(int p = start; p < end; p++) {
+            int digit = table.at(p) - '0';
+            if(digit < 0 || digit > 9) return NOT_A_NUMBER;
+            v = v * 10 + digit;
+        }
+        return neg ? -v : v;
+    }
+
+    private static int max(int[] a) {
+        int m = 0;
+        for(int v : a) m = Math.max(m, v);
+        return m;
+    }
+
+    // --- STABLE: PING-PONG MERGE SORT ON THE PERMUTATION ---
+
+    /** Sorts src[lo..hi] into dst[lo..hi]; both hold the same rows on entry. */
+    private void mergeSort(int[] src, int[] dst, int lo, int hi) {
+        if(hi - lo + 1 <= CUTOFF) {
+            insertionSort(dst, lo, hi);
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        mergeSort(dst, src, lo, mid);
+        mergeSort(dst, src, mid + 1, hi);
+
+        out.accept(SortOps.compare(mid, mid + 1));
+        if(rank[src[mid]] <= rank[src[mid + 1]]) {
+            System.arraycopy(src, lo, dst, lo, hi - lo + 1); // the slots already show these rows
+            return;
+        }
+        int i = lo, j = mid + 1, k = lo;
+        while(i <= mid && j <= hi) {
+            out.accept(SortOps.pointer(SortOps.PTR_A, SortOps.LBL_L, i));
+            out.accept(SortOps.pointer(SortOps.PTR_B, SortOps.LBL_R, j));
+            out.accept(SortOps.compare(i, j));
+            // Only a strictly smaller right row goes first: equal keys keep their order
+            if(rank[src[j]] < rank[src[i]]) write(dst, k++, src[j++]);
+            else write(dst, k++, src[i++]);
+        }
+        while(i <= mid) write(dst, k++, src[i++]);
+        while(j <= hi) write(dst, k++, src[j++]);
+    }
+
+    private void write(int[] dst, int k, int row) {
+        dst[k] = row;
+        out.accept(SortOps.write(k, display[row]));
+    }
+
+    /** Insertion sort by adjacent swaps, stable; also the small-range finish of the quick sort. */
+    private void insertionSort(int[] p, int lo, int hi) {
+        for(int i = lo + 1; i <= hi; i++) {
+            for(int j = i; j > lo; j--) {
+                out.accept(SortOps.compare(j - 1, j));
+                if(rank[p[j - 1]] <= rank[p[j]]) break;
+                swap(p, j - 1, j);
+            }
+        }
+    }
+
+    private void swap(int[] p, int i, int j) {
+        if(i == j) return;
+        int t = p[i]; p[i] = p[j]; p[j] = t;
+        out.accept(SortOps.swap(i, j));
+    }
+
+    // --- IN PLACE: 3-WAY QUICK SORT ON THE PERMUTATION ---
+
+    /** Dijkstra's 3-way partition around a median of three; recurses into the smaller side only. */
+    private void quickSort(int lo, int hi) {
+        while(hi - lo + 1 > CUTOFF) {
+            swap(perm, lo, medianOf3(lo, (lo + hi) >>> 1, hi));
+            int lt = lo, i = lo + 1, gt = hi;
+            while(i <= gt) {
+                out.accept(SortOps.pointer(SortOps.PTR_A, SortOps.LBL_I, i));
+                out.accept(SortOps.compare(i, lt)); // perm[lt] always holds a row equal to the pivot
+                int c = Integer.compare(rank[perm[i]], rank[perm[lt]]);
+                if(c < 0) swap(perm, lt++, i++);
+                else if(c > 0) swap(perm, i, gt--);
+                else i++;
+            }
+            if(lt - lo < hi - gt) {
+                quickSort(lo, lt - 1);
+                lo = gt + 1;
+            } else {
+                quickSort(gt + 1, hi);
+                hi = lt - 1;
+            }
+        }
+        insertionSort(perm, lo, hi);
+    }
+
+    private int medianOf3(int i, int j, int k) {
+        out.accept(SortOps.compare(i, j));
+        out.accept(SortOps.compare(j, k));
+        int a = rank[perm[i]], b = rank[perm[j]], c = rank[perm[k]];
+        if(a < b) return b < c ? j : a < c ? k : i;
+        return a < c ? i : b < c ? k : j;
+    }
+
+    // --- REPORT ---
+
+    /** Rows with equal keys in the sorted order, and how many of those pairs came out of file order. */
+    record Stability(long tiedPairs, long reordered, int groups) {
+        boolean stable() { return reordered == 0; }
+
+        @Override
+        public String toString() {
+            if(tiedPairs == 0) return "no equal keys, so stability does not matter";
+            if(stable()) return String.format(Locale.ROOT, "stable: %,d groups of equal keys kept file order", groups);
+            return String.format(Locale.ROOT, "NOT stable: %,d of %,d neighbours with equal keys out of file order",
+                    reordered, tiedPairs);
+        }
+    }
+
+    static Stability stability(int[] rank, int[] perm) {
+        long tied = 0, reordered = 0;
+        int groups = 0;
+        for(int i = 1; i < perm.length; i++) {
+            if(rank[perm[i]] != rank[perm[i - 1]]) continue;
+            if(i == 1 || rank[perm[i - 1]] != rank[perm[i - 2]]) groups++;
+            tied++;
+            if(perm[i] < perm[i - 1]) reordered++;
+        }
+        return new Stability(tied, reordered, groups);
+    }
+
+    /** Whether the rows come out in key order. */
+    static boolean sorted(int[] rank, int[] perm) {
+        for(int i = 1; i < perm.length; i++) if(rank[perm[i]] < rank[perm[i - 1]]) return false;
+        return true;
+    }
+}
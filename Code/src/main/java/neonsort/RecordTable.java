@@ -0,0 +1,215 @@
+package neonsort;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A CSV file of records, left where it is: the file is mapped read-only and
+ * only the start of every row is kept, so a record costs one int on the
+ * heap however many columns it has. The first row names the columns.
+ * Fields follow RFC 4180: separated by commas, optionally in double quotes,
+ * with "" for a quote and line breaks allowed inside quotes.
+ *
+ * Fields are only ever read for the key columns, by {@link RecordSort};
+ * the payload is copied once, row by row in sorted order, when the sorted
+ * table is written out, and not at all otherwise.
+ */
+final class RecordTable {
+
+    private final Path file;
+    private final MappedByteBuffer bytes;
+    private final List<String> columns;
+    private final int headerStart;
+    private final int[] rowStart; // rows() + 1 entries: the last is the end of the data
+
+    private RecordTable(Path file, MappedByteBuffer bytes, List<String> columns, int headerStart, int[] rowStart) {
+        this.file = file;
+        this.bytes = bytes;
+        this.columns = columns;
+        this.headerStart = headerStart;
+        this.rowStart = rowStart;
+    }
+
+    static RecordTable load(Path file) throws IOException {
+        MappedByteBuffer bytes;
+        try(FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            if(ch.size() > Integer.MAX_VALUE) throw new IOException(file.getFileName() + " is over 2 GB");
+            bytes = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+        }
+        int size = bytes.limit();
+        int[] starts = new int[1024];
+        int rows = 0;
+        for(int pos = 0; pos < size; ) {
+            int end = lineEnd(bytes, pos);
+            if(end > pos) { // skip blank lines
+                if(rows == starts.length) starts = Arrays.copyOf(starts, starts.length * 2);
+                starts[rows++] = pos;
+            }
+            pos = skipBreak(bytes, end);
+        }
+        if(rows == 0) throw new IOException(file.getFileName() + " is empty");
+        if(rows - 1 > SortOps.MAX_INDEX + 1) throw new IOException(file.getFileName() + " has more rows than a run can record");
+
+        List<String> columns = new ArrayList<>();
+        int headerEnd = lineEnd(bytes, starts[0]);
+        for(int pos = starts[0]; ; ) {
+            int end = fieldEnd(bytes, pos, headerEnd);
+            columns.add(unquote(text(bytes, pos, end).trim()));
+            if(end >= headerEnd) break;
+            pos = end + 1;
+        }
+
+        // Rows after the header, plus the end of the data
+        int[] rowStart = new int[rows];
+        System.arraycopy(starts, 1, rowStart, 0, rows - 1);
+        rowStart[rows - 1] = size;
+        return new RecordTable(file, bytes, List.copyOf(columns), starts[0], rowStart);
+    }
+
+    Path file() { return file; }
+    int rows() { return rowStart.length - 1; }
+    List<String> columns() { return columns; }
+
+    /** Mean bytes per row, line break included. */
+    double rowBytes() {
+        return rows() == 0 ? 0 : (double) (rowStart[rows()] - rowStart[0]) / rows();
+    }
+
+    /** Index of a column by name (case-insensitive) or by 1-based number. */
+    int column(String name) {
+        for(int c = 0; c < columns.size(); c++) {
+            if(columns.get(c).equalsIgnoreCase(name)) return c;
+        }
+        try {
+            int c = Integer.parseInt(name) - 1;
+            if(c >= 0 && c < columns.size()) return c;
+        } catch(NumberFormatException ignored) {
+            // not a number either
+        }
+        throw new IllegalArgumentException("No column " + name + " in " + file.getFileName() + "; columns: " + String.join(", ", columns));
+    }
+
+    /**
+     * Finds the given columns of every row in one pass: {@code start[k][r]}
+     * and {@code end[k][r]} bound field {@code cols[k]} of row r in the file,
+     * quotes included; a missing field is empty.
+     */
+    void locate(int[] cols, int[][] start, int[][] end) {
+        int last = 0;
+        for(int c : cols) last = Math.max(last, c);
+        int[] fieldStart = new int[last + 1], fieldEnd = new int[last + 1];
+        for(int r = 0; r < rows(); r++) {
+            int lineEnd = lineEnd(bytes, rowStart[r]);
+            int pos = rowStart[r], c = 0;
+            for(; c <= last; c++) {
+                int e = fieldEnd(bytes, pos, lineEnd);
+                fieldStart[c] = pos;
+                fieldEnd[c] = e;
+                if(e >= lineEnd) break;
+                pos = e + 1;
+            }
+            for(c++; c <= last; c++) fieldStart[c] = fieldEnd[c] = lineEnd;
+            for(int k = 0; k < cols.length; k++) {
+                start[k][r] = fieldStart[cols[k]];
+                end[k][r] = fieldEnd[cols[k]];
+            }
+        }
+    }
+
+    /** Byte at a file offset, for parsing fields in place. */
+    byte at(int pos) { return bytes.get(pos); }
+
+    /** A field's text without its quotes. */
+    String field(int start, int end) {
+        if(end > start && bytes.get(start) == '"') {
+            int close = end - 1;
+            while(close > start && bytes.get(close) != '"') close--;
+            return text(bytes, start + 1, Math.max(start + 1, close)).replace("\"\"", "\"");
+        }
+        return text(bytes, start, end);
+    }
+
+    /**
+     * Writes the header and then every row in the order {@code perm} gives,
+     * each copied byte for byte: the one time the payload moves.
+     */
+    void write(Path out, int[] perm) throws IOException {
+        try(OutputStream os = new BufferedOutputStream(Files.newOutputStream(out), 1 << 16)) {
+            byte[] buf = new byte[1 << 12];
+            copy(os, headerStart, lineEnd(bytes, headerStart), buf);
+            os.write('\n');
+            for(int r : perm) {
+                copy(os, rowStart[r], lineEnd(bytes, rowStart[r]), buf);
+                os.write('\n');
+            }
+        }
+    }
+
+    private void copy(OutputStream os, int from, int to, byte[] buf) throws IOException {
+        for(int pos = from; pos < to; ) {
+            int n = Math.min(buf.length, to - pos);
+            bytes.get(pos, buf, 0, n);
+            os.write(buf, 0, n);
+            pos += n;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%s: %,d rows x %d columns, %.0f bytes per row",
+                file.getFileName(), rows(), columns.size(), rowBytes());
+    }
+
+    // --- SCANNING ---
+
+    /** Offset of the line break (or end of data) ending the row at {@code pos}; breaks inside quotes don't count. */
+    private static int lineEnd(MappedByteBuffer b, int pos) {
+        int size = b.limit();
+        boolean quoted = false;
+        for(; pos < size; pos++) {
+            byte c = b.get(pos);
+            if(c == '"') quoted = !quoted;
+            else if(!quoted && (c == '\n' || c == '\r')) return pos;
+        }
+        return size;
+    }
+
+    private static int skipBreak(MappedByteBuffer b, int pos) {
+        if(pos < b.limit() && b.get(pos) == '\r') pos++;
+        if(pos < b.limit() && b.get(pos) == '\n') pos++;
+        return pos;
+    }
+
+    /** Offset of the comma (or line end) ending the field at {@code pos}. */
+    private static int fieldEnd(MappedByteBuffer b, int pos, int lineEnd) {
+        boolean quoted = false;
+        for(; pos < lineEnd; pos++) {
+            byte c = b.get(pos);
+            if(c == '"') quoted = !quoted;
+            else if(c == ',' && !quoted) return pos;
+        }
+        return lineEnd;
+    }
+
+    private static String unquote(String s) {
+        if(s.length() >= 2 && s.startsWith("\"") && s.endsWith("\"")) return s.substring(1, s.length() - 1).replace("\"\"", "\"");
+        return s;
+    }
+
+    private static String text(MappedByteBuffer b, int from, int to) {
+        byte[] s = new byte[to - from];
+        b.get(from, s);
+        return new String(s, StandardCharsets.UTF_8);
+    }
+}
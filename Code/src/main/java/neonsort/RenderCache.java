@@ -0,0 +1,199 @@
+package neonsort;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Everything the canvas needs to paint a frame, created once.
+ *
+ * Fonts, colours and strokes are shared constants. Number labels, node discs,
+ * bar caps and pointers are pre-rendered into small images, because Java2D
+ * allocates path iterators for every oval, rounded rectangle and dashed
+ * line it fills; blitting an image and filling a plain rectangle do not.
+ * A steady-state frame is therefore painted without allocating.
+ */
+final class RenderCache {
+
+    // --- FONTS ---
+    final Font nodeFont = new Font("Segoe UI", Font.BOLD, 14);
+    final Font barFont = new Font("Monospaced", Font.BOLD, 10);
+    final Font pointerFont = nodeFont;
+
+    // --- COLORS ---
+    final Color shadow = new Color(0, 0, 0, 50);
+    final Color outline = new Color(255, 255, 255, 150);
+    final Color barText = new Color(255, 255, 255, 50);
+
+    // --- STROKES ---
+    final Stroke outlineStroke = new BasicStroke(1);
+    final Stroke pointerStroke = new BasicStroke(2, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER, 10, new float[]{5}, 0);
+
+    static final int NODE_SIZE = 42;
+    static final int BAR_ARC = 6;
+    private static final int POINTER_LENGTH = 25;
+
+    final LabelCache nodeLabels = new LabelCache(nodeFont, Color.WHITE);
+    final LabelCache barLabels = new LabelCache(barFont, barText);
+
+    private final Map<Color, BufferedImage> nodeSprites = new HashMap<>();
+    private final Map<Color, BufferedImage> barCaps = new HashMap<>();
+    private final Map<Color, Map<String, BufferedImage>> pointers = new HashMap<>();
+    private final FontMetrics pointerMetrics = metrics(pointerFont);
+
+    /** Shadow, disc and outline of a node; draw at (x - NODE_SIZE/2, y - NODE_SIZE/2). */
+    BufferedImage nodeSprite(Color c) {
+        BufferedImage img = nodeSprites.get(c);
+        if(img == null) {
+            img = new BufferedImage(NODE_SIZE + 3, NODE_SIZE + 3, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = antialiased(img);
+            g.setColor(shadow);
+            g.fillOval(2, 2, NODE_SIZE, NODE_SIZE);
+            g.setColor(c);
+            g.fillOval(0, 0, NODE_SIZE, NODE_SIZE);
+            g.setColor(outline);
+            g.setStroke(outlineStroke);
+            g.drawOval(0, 0, NODE_SIZE, NODE_SIZE);
+            g.dispose();
+            nodeSprites.put(c, img);
+        }
+        return img;
+    }
+
+    /** Rounded top {@code BAR_ARC} pixels of a bar of width {@code w}. */
+    BufferedImage barCap(Color c, int w) {
+        BufferedImage img = barCaps.get(c);
+        if(img == null || img.getWidth() != w) {
+            img = new BufferedImage(Math.max(1, w), BAR_ARC, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = antialiased(img);
+            g.setColor(c);
+            g.fillRoundRect(0, 0, w, BAR_ARC * 2, BAR_ARC, BAR_ARC);
+            g.dispose();
+            barCaps.put(c, img);
+        }
+        return img;
+    }
+
+    /**
+     * Dashed line, arrow head and label of a pointer. The arrow tip sits at
+     * the bottom centre of the image.
+     */
+    BufferedImage pointer(String label, Color c) {
+        Map<String, BufferedImage> byLabel = pointers.get(c);
+        if(byLabel == null) {
+            byLabel = new HashMap<>();
+            pointers.put(c, byLabel);
+        }
+        BufferedImage img = byLabel.get(label);
+        if(img == null) {
+            int w = Math.max(11, pointerMetrics.stringWidth(label)) + 2;
+            int h = POINTER_LENGTH + 5 + pointerMetrics.getAscent() + 1;
+            img = new BufferedImage(w | 1, h, BufferedImage.TYPE_INT_ARGB);
+            int x = img.getWidth() / 2, yTop = h - 1, yBot = yTop - POINTER_LENGTH;
+
+            Graphics2D g = antialiased(img);
+            g.setColor(c);
+            g.setStroke(pointerStroke);
+            g.drawLine(x, yTop, x, yBot);
+            g.fillPolygon(new int[]{x, x - 5, x + 5}, new int[]{yTop, yTop - 8, yTop - 8}, 3);
+            g.setFont(pointerFont);
+            g.drawString(label, x - pointerMetrics.stringWidth(label) / 2, yBot - 5);
+            g.dispose();
+            byLabel.put(label, img);
+        }
+        return img;
+    }
+
+    private static Graphics2D antialiased(BufferedImage img) {
+        Graphics2D g = img.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        return g;
+    }
+
+    private static FontMetrics metrics(Font f) {
+        Graphics2D g = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB).createGraphics();
+        try {
+            return g.getFontMetrics(f);
+        } finally {
+            g.dispose();
+        }
+    }
+
+    private static BufferedImage renderText(String text, Font font, FontMetrics fm, Color c) {
+        int w = Math.max(1, fm.stringWidth(text));
+        int h = Math.max(1, fm.getAscent() + fm.getDescent());
+        BufferedImage img = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = antialiased(img);
+        g.setFont(font);
+        g.setColor(c);
+        g.drawString(text, 0, fm.getAscent());
+        g.dispose();
+        return img;
+    }
+
+    /**
+     * Pre-rendered number labels in one font and colour, in an open-addressing
+     * table keyed by the int itself so lookups never box.
+     */
+    static final class LabelCache {
+        private static final int MAX_ENTRIES = 1 << 16;
+
+        private final Font font;
+        private final Color color;
+        private final FontMetrics fm;
+
+        private int[] keys = new int[256];
+        private BufferedImage[] images = new BufferedImage[256];
+        private int count;
+
+        LabelCache(Font font, Color color) {
+            this.font = font;
+            this.color = color;
+            this.fm = metrics(font);
+        }
+
+        int ascent() {
+            return fm.getAscent();
+        }
+
+        /** Label image for {@code value}; drawn once, then reused. */
+        BufferedImage get(int value) {
+            int mask = keys.length - 1;
+            int slot = mix(value) & mask;
+            while(images[slot] != null) {
+                if(keys[slot] == value) return images[slot];
+                slot = (slot + 1) & mask;
+            }
+
+            BufferedImage img = renderText(String.valueOf(value), font, fm, color);
+            if(count >= MAX_ENTRIES) return img; // pathological input - don't grow forever
+
+            keys[slot] = value;
+            images[slot] = img;
+            if(++count * 2 > keys.length) grow();
+            return img;
+        }
+
+        private void grow() {
+            int[] oldKeys = keys;
+            BufferedImage[] oldImages = images;
+            keys = new int[oldKeys.length * 2];
+            images = new BufferedImage[oldImages.length * 2];
+            int mask = keys.length - 1;
+            for(int i = 0; i < oldKeys.length; i++) {
+                if(oldImages[i] == null) continue;
+                int slot = mix(oldKeys[i]) & mask;
+                while(images[slot] != null) slot = (slot + 1) & mask;
+                keys[slot] = oldKeys[i];
+                images[slot] = oldImages[i];
+            }
+        }
+
+        private static int mix(int v) {
+            int h = v * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package neonsort;
+
+/**
+ * A sorting algorithm the studio can run and animate.
+ *
+ * Implementations are found with {@link java.util.ServiceLoader}: a class
+ * listed in META-INF/services/neonsort.SortAlgorithm shows up in the
+ * algorithm box, races, recording, export and the benchmarks without any
+ * change to the UI. The class can live in any package; it needs a public
+ * no-argument constructor (a public static nested class is fine). The list
+ * order is the menu order.
+ *
+ * {@link #sort} runs at full speed on a plain int[] and reports what it does
+ * to the {@link OpSink} as ops built with the public {@link SortOps}
+ * encoders, like everything in {@link SortEngine}; it must not sleep, wait
+ * for the animation or touch Swing.
+ */
+public interface SortAlgorithm {
+
+    /** Unique display name, also stored in trace files. */
+    String name();
+
+    /** The line shown under the canvas while the algorithm is selected. */
+    String complexity();
+
+    /** Sorts {@code a} in place, reporting every step to {@code out}. */
+    void sort(int[] a, OpSink out);
+
+    /** True if the run nests ENTER/LEAVE and wants the tall level layout. */
+    default boolean usesLevels() { return false; }
+
+    /** For a parallel algorithm, the sequential one to time it against; otherwise null. */
+    default String sequential() { return null; }
+}
@@ -0,0 +1,45 @@
+package neonsort;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+/**
+ * Registry of every {@link SortAlgorithm} on the class path, loaded once in
+ * service-file order. A later provider with a name that is already taken is
+ * ignored, so a plugin cannot silently replace a built-in algorithm.
+ */
+final class SortAlgorithms {
+
+    private static final Map<String, SortAlgorithm> BY_NAME = load();
+
+    private SortAlgorithms() {}
+
+    private static Map<String, SortAlgorithm> load() {
+        Map<String, SortAlgorithm> all = new LinkedHashMap<>();
+        for(SortAlgorithm algo : ServiceLoader.load(SortAlgorithm.class, SortAlgorithm.class.getClassLoader())) {
+            all.putIfAbsent(algo.name(), algo);
+        }
+        if(all.isEmpty()) throw new IllegalStateException("No sort algorithms found: META-INF/services/" + SortAlgorithm.class.getName() + " is missing");
+        return Collections.unmodifiableMap(all);
+    }
+
+    /** Every algorithm name, in menu order. */
+    static List<String> names() {
+        return new ArrayList<>(BY_NAME.keySet());
+    }
+
+    /** The algorithm with this name, or null for a name that is not an algorithm (a record sort, say). */
+    static SortAlgorithm find(String name) {
+        return BY_NAME.get(name);
+    }
+
+    static SortAlgorithm get(String name) {
+        SortAlgorithm algo = find(name);
+        if(algo == null) throw new IllegalArgumentException("Unknown algorithm: " + name);
+        return algo;
+    }
+}
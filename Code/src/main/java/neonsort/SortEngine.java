@@ -0,0 +1,263 @@
+package neonsort;
+
+import java.util.Random;
+
+/**
+ * Headless sorting engine. Every algorithm runs at full speed on a plain int[]
+ * and reports what it does to an {@link OpSink}; nothing here sleeps, waits
+ * for the animation or touches Swing.
+ */
+final class SortEngine {
+
+    private final int[] a;
+    private final OpSink out;
+
+    SortEngine(int[] a, OpSink out) {
+        this.a = a;
+        this.out = out;
+    }
+
+    /** Sorts {@code a} in place with the named algorithm (see {@link SortAlgorithms}). */
+    static void sort(String algo, int[] a, OpSink out) {
+        if(a.length - 1 > SortOps.MAX_INDEX) throw new IllegalArgumentException("Array too large to record: " + a.length);
+        SortAlgorithms.get(algo).sort(a, out);
+    }
+
+    /** Values in 5..99, the same range the Randomize button has always produced. */
+    static int[] randomInput(int n, long seed) {
+        Random r = new Random(seed);
+        int[] values = new int[n];
+        for(int i = 0; i < n; i++) values[i] = r.nextInt(95) + 5;
+        return values;
+    }
+
+    // --- PRIMITIVES ---
+
+    boolean greater(int i, int j) {
+        out.accept(SortOps.compare(i, j));
+        return a[i] > a[j];
+    }
+
+    /** Three-way comparison of a[i] and a[j], reported as one compare. */
+    int compare(int i, int j) {
+        out.accept(SortOps.compare(i, j));
+        return Integer.compare(a[i], a[j]);
+    }
+
+    void swap(int i, int j) {
+        if(i == j) return;
+        int t = a[i]; a[i] = a[j]; a[j] = t;
+        out.accept(SortOps.swap(i, j));
+    }
+
+    void write(int i, int v) {
+        a[i] = v;
+        out.accept(SortOps.write(i, v));
+    }
+
+    void pointer(int slot, int label, int idx) {
+        out.accept(SortOps.pointer(slot, label, idx));
+    }
+
+    void mark(int i, byte state) {
+        out.accept(SortOps.mark(i, state));
+    }
+
+    void bucket(int i, int bucket) {
+        out.accept(SortOps.bucket(i, bucket));
+    }
+
+    void clearPointers() {
+        pointer(SortOps.PTR_A, SortOps.LBL_NONE, -1);
+        pointer(SortOps.PTR_B, SortOps.LBL_NONE, -1);
+        pointer(SortOps.PTR_PIVOT, SortOps.LBL_NONE, -1);
+    }
+
+    // --- MERGE SORT ---
+
+    private void mergeSort() {
+        if(a.length < 2) return;
+        mergeSortRec(new int[a.length], 0, a.length - 1);
+    }
+
+    void mergeSortRec(int[] aux, int l, int r) {
+        if(l >= r) return;
+        out.accept(SortOps.enter(l, r));
+        int mid = (l + r) >>> 1;
+        mergeSortRec(aux, l, mid);
+        mergeSortRec(aux, mid + 1, r);
+        merge(aux, l, mid, r);
+        out.accept(SortOps.leave(l, r));
+    }
+
+    private void merge(int[] aux, int l, int mid, int r) {
+        System.arraycopy(a, l, aux, l, r - l + 1);
+        mergeRuns(aux, l, mid, mid + 1, r, l);
+    }
+
+    /**
+     * Merges the sorted runs aux[i..iEnd] and aux[j..jEnd] into a, starting
+     * at slot k.
+     */
+    void mergeRuns(int[] aux, int i, int iEnd, int j, int jEnd, int k) {
+        int end = k + (iEnd - i + 1) + (jEnd - j + 1);
+
+        // Indices into aux line up with the slots the values were copied from,
+        // so compares are reported against the original positions.
+        for(; k < end; k++) {
+            if(i > iEnd) {
+                write(k, aux[j++]);
+            } else if(j > jEnd) {
+                write(k, aux[i++]);
+            } else {
+                pointer(SortOps.PTR_A, SortOps.LBL_L, i);
+                pointer(SortOps.PTR_B, SortOps.LBL_R, j);
+                out.accept(SortOps.compare(i, j));
+                if(aux[i] <= aux[j]) write(k, aux[i++]);
+                else write(k, aux[j++]);
+            }
+        }
+        clearPointers();
+    }
+
+    // --- QUICK SORT (Lomuto, last element as pivot) ---
+
+    private void quickSort() {
+        quickSortRec(0, a.length - 1);
+    }
+
+    void quickSortRec(int low, int high) {
+        if(low < high) {
+            int p = partition(low, high);
+            quickSortRec(low, p - 1);
+            quickSortRec(p + 1, high);
+        } else if(low == high) {
+            mark(low, SortOps.SORTED);
+        }
+    }
+
+    int partition(int low, int high) {
+        mark(high, SortOps.PIVOT);
+        pointer(SortOps.PTR_PIVOT, SortOps.LBL_KEY, high);
+
+        int i = low - 1;
+        for(int j = low; j < high; j++) {
+            pointer(SortOps.PTR_A, SortOps.LBL_I, i);
+            pointer(SortOps.PTR_B, SortOps.LBL_J, j);
+            if(greater(high, j)) {
+                i++;
+                swap(i, j);
+            }
+        }
+        swap(i + 1, high);
+        mark(i + 1, SortOps.SORTED);
+        clearPointers();
+        return i + 1;
+    }
+
+    // --- INSERTION SORT ---
+    // Expressed as adjacent exchanges so a replay can carry the key node along.
+
+    private void insertionSort() {
+        insertionSort(0, a.length - 1);
+    }
+
+    /** Sorts a[lo..hi]; also the small-range finish of the distribution sorts. */
+    void insertionSort(int lo, int hi) {
+        for(int i = lo + 1; i <= hi; i++) {
+            mark(i, SortOps.PIVOT);
+            int j = i - 1;
+            pointer(SortOps.PTR_PIVOT, SortOps.LBL_KEY, i);
+            while(j >= lo) {
+                pointer(SortOps.PTR_A, SortOps.LBL_SCAN, j);
+                if(!greater(j, j + 1)) break;
+                swap(j, j + 1);
+                pointer(SortOps.PTR_PIVOT, SortOps.LBL_KEY, j);
+                j--;
+            }
+            mark(j + 1, SortOps.SORTED);
+        }
+        clearPointers();
+    }
+
+    // --- SELECTION SORT ---
+
+    private void selectionSort() {
+        int n = a.length;
+        for(int i = 0; i < n - 1; i++) {
+            pointer(SortOps.PTR_A, SortOps.LBL_CURRENT, i);
+            int min = i;
+            pointer(SortOps.PTR_PIVOT, SortOps.LBL_KEY, min);
+            for(int j = i + 1; j < n; j++) {
+                pointer(SortOps.PTR_B, SortOps.LBL_MIN, j);
+                if(greater(min, j)) {
+                    min = j;
+                    pointer(SortOps.PTR_PIVOT, SortOps.LBL_KEY, min);
+                }
+            }
+            swap(i, min);
+            mark(i, SortOps.SORTED);
+        }
+        if(n > 0) mark(n - 1, SortOps.SORTED);
+        clearPointers();
+    }
+
+    // --- BUBBLE SORT ---
+
+    private void bubbleSort() {
+        int n = a.length;
+        for(int i = 0; i < n - 1; i++) {
+            boolean swapped = false;
+            for(int j = 0; j < n - i - 1; j++) {
+                pointer(SortOps.PTR_A, SortOps.LBL_J, j);
+                pointer(SortOps.PTR_B, SortOps.LBL_J1, j + 1);
+                if(greater(j, j + 1)) {
+                    swap(j, j + 1);
+                    swapped = true;
+                }
+            }
+            mark(n - i - 1, SortOps.SORTED);
+            if(!swapped) {
+                // Nothing moved, so everything left of the sorted tail is already in order.
+                for(int k = n - i - 2; k >= 0; k--) mark(k, SortOps.SORTED);
+                break;
+            }
+        }
+        if(n > 0) mark(0, SortOps.SORTED);
+        clearPointers();
+    }
+
+    // --- PROVIDERS ---
+    // Listed in META-INF/services/neonsort.SortAlgorithm
+
+    public static final class MergeSort implements SortAlgorithm {
+        @Override public String name() { return "Merge Sort"; }
+        @Override public String complexity() { return "Time Complexity: Best: O(n log n) | Avg: O(n log n) | Worst: O(n log n)"; }
+        @Override public void sort(int[] a, OpSink out) { new SortEngine(a, out).mergeSort(); }
+        @Override public boolean usesLevels() { return true; }
+    }
+
+    public static final class QuickSort implements SortAlgorithm {
+        @Override public String name() { return "Quick Sort"; }
+        @Override public String complexity() { return "Time Complexity: Best: O(n log n) | Avg: O(n log n) | Worst: O(n²)"; }
+        @Override public void sort(int[] a, OpSink out) { new SortEngine(a, out).quickSort(); }
+    }
+
+    public static final class InsertionSort implements SortAlgorithm {
+        @Override public String name() { return "Insertion Sort"; }
+        @Override public String complexity() { return "Time Complexity: Best: O(n) | Avg: O(n²) | Worst: O(n²)"; }
+        @Override public void sort(int[] a, OpSink out) { new SortEngine(a, out).insertionSort(); }
+    }
+
+    public static final class SelectionSort implements SortAlgorithm {
+        @Override public String name() { return "Selection Sort"; }
+        @Override public String complexity() { return "Time Complexity: Best: O(n²) | Avg: O(n²) | Worst: O(n²)"; }
+        @Override public void sort(int[] a, OpSink out) { new SortEngine(a, out).selectionSort(); }
+    }
+
+    public static final class BubbleSort implements SortAlgorithm {
+        @Override public String name() { return "Bubble Sort"; }
+        @Override public String complexity() { return "Time Complexity: Best: O(n) | Avg: O(n²) | Worst: O(n²)"; }
+        @Override public void sort(int[] a, OpSink out) { new SortEngine(a, out).bubbleSort(); }
+    }
+}
@@ -0,0 +1,84 @@
+package neonsort;
+
+/**
+ * Compact encoding of everything a sort does to its array.
+ *
+ * Each operation is packed into a single long:
+ *   bits 63..60  operation type
+ *   bits 59..32  operand A (unsigned, 28 bits - array index or pointer slot)
+ *   bits 31..0   operand B (signed int - second index, value or state)
+ *
+ * The engine emits these while it sorts a plain int[] at full speed, and the
+ * animation replays them afterwards at whatever speed the user picked.
+ * The encoders and the constants they take are public, so a
+ * {@link SortAlgorithm} from another package can report its steps too.
+ */
+public final class SortOps {
+
+    // --- OPERATION TYPES ---
+    public static final int COMPARE = 1; // A = i, B = j
+    public static final int SWAP    = 2; // A = i, B = j
+    public static final int WRITE   = 3; // A = i, B = value
+    public static final int POINTER = 4; // A = slot | label << 2, B = index (-1 hides it)
+    public static final int MARK    = 5; // A = i, B = state
+    public static final int ENTER   = 6; // A = lo, B = hi (recursion enters a range)
+    public static final int LEAVE   = 7; // A = lo, B = hi (range finished)
+    public static final int WORKER  = 8; // A = worker id (the ops that follow ran on it)
+    public static final int BUCKET  = 9; // A = i, B = bucket (slot i was read into that bucket)
+
+    // --- NODE STATES ---
+    public static final byte DEFAULT = 0;
+    public static final byte COMPARING = 1;
+    public static final byte SORTED = 2;
+    public static final byte PIVOT = 3;
+
+    // --- POINTER SLOTS ---
+    public static final int PTR_A = 0;
+    public static final int PTR_B = 1;
+    public static final int PTR_PIVOT = 2;
+
+    // --- POINTER LABELS ---
+    public static final int LBL_NONE = 0;
+    public static final int LBL_L = 1;
+    public static final int LBL_R = 2;
+    public static final int LBL_I = 3;
+    public static final int LBL_J = 4;
+    public static final int LBL_J1 = 5;
+    public static final int LBL_SCAN = 6;
+    public static final int LBL_CURRENT = 7;
+    public static final int LBL_MIN = 8;
+    public static final int LBL_KEY = 9;
+    public static final int LBL_READ = 10;
+    public static final int LBL_WRITE = 11;
+    public static final int LBL_HEAP = 12;
+    static final String[] LABELS = {"", "L", "R", "i", "j", "j+1", "scan", "current", "?", "KEY", "read", "write", "heap"};
+
+    /** Largest index that fits in operand A. */
+    public static final int MAX_INDEX = (1 << 28) - 1;
+
+    private SortOps() {}
+
+    static long encode(int type, int a, int b) {
+        return ((long) type << 60) | ((long) (a & MAX_INDEX) << 32) | (b & 0xFFFFFFFFL);
+    }
+
+    static int type(long op) { return (int) (op >>> 60); }
+    static int a(long op) { return (int) ((op >>> 32) & MAX_INDEX); }
+    static int b(long op) { return (int) op; }
+
+    public static long compare(int i, int j) { return encode(COMPARE, i, j); }
+    public static long swap(int i, int j) { return encode(SWAP, i, j); }
+    public static long write(int i, int value) { return encode(WRITE, i, value); }
+    public static long mark(int i, byte state) { return encode(MARK, i, state); }
+    public static long enter(int lo, int hi) { return encode(ENTER, lo, hi); }
+    public static long leave(int lo, int hi) { return encode(LEAVE, lo, hi); }
+    public static long worker(int id) { return encode(WORKER, id, 0); }
+    public static long bucket(int i, int bucket) { return encode(BUCKET, i, bucket); }
+
+    public static long pointer(int slot, int label, int index) {
+        return encode(POINTER, slot | (label << 2), index);
+    }
+
+    static int pointerSlot(long op) { return a(op) & 3; }
+    static int pointerLabel(long op) { return a(op) >>> 2; }
+}
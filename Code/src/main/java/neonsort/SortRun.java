@@ -0,0 +1,382 @@
+package neonsort;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Everything one animated sort owns: its nodes, pointers, counters and the
+ * replay state. The studio has one for the main view and one per lane in a
+ * race; each is replayed by its own thread and painted by the shared timer.
+ *
+ * The counters are {@link LongAdder}s so many replay threads can count
+ * without contending with each other or with the EDT reading them. The
+ * replay also adds up the time it spends blocked (the per-compare delay,
+ * waiting for nodes to settle, pause) so the rest of its wall time can be
+ * reported as working time.
+ *
+ * The replay position is a single cursor shared by both replay modes, so a
+ * run that was stopped, or put back to a {@link Snapshot} by a
+ * {@link Timeline}, carries on from where it stands. A replay stops at the
+ * next op once the window says it is no longer running, the run is
+ * cancelled or its thread is interrupted; an interrupt also cuts short the
+ * sleep or wait it is in.
+ */
+final class SortRun {
+
+    /** What the replay needs from the window it is shown in. */
+    interface Control {
+        boolean running();
+        /** Blocks while paused, at the start of an op. */
+        void awaitOp();
+        /** Blocks while paused, within an op. */
+        void checkPaused();
+        int delayMs();
+        ViewMode viewMode();
+    }
+
+    final NodeStore nodes = new NodeStore();
+    final Pointers pointers = new Pointers();
+    final LongAdder comparisons = new LongAdder();
+    final LongAdder swaps = new LongAdder();
+    final LongAdder blockedNanos = new LongAdder();
+    private volatile long startedNanos, finishedNanos; // 0 = not started / still running
+
+    volatile String algorithm;
+    volatile int maxValue = 1;
+    volatile int place; // finishing position in a race, 0 while running
+    private volatile boolean cancelled;
+
+    private final Control control;
+    private final boolean levels; // animate ENTER/LEAVE as a level layout
+
+    // Replay state, only touched by the replaying thread (the EDT in batch mode)
+    private int replayDepth;
+    private int liftedIndex = -1;
+    private int lastCmpA = -1, lastCmpB = -1;
+    private int replayWorker = -1;
+    private boolean batch;      // applying ops in per-frame batches: never sleep or wait
+    private volatile long cursor; // next op to apply; read by the EDT to show progress
+    private long lastBatchEnd;
+
+    SortRun(String algorithm, Control control, boolean levels) {
+        this.algorithm = algorithm;
+        this.control = control;
+        this.levels = levels;
+    }
+
+    /** Clears counters, highlights, pointers and the replay position before a new run. */
+    void reset() {
+        comparisons.reset();
+        swaps.reset();
+        blockedNanos.reset();
+        startedNanos = finishedNanos = 0;
+        place = 0;
+        pointers.clear();
+        nodes.fillState(SortOps.DEFAULT);
+        nodes.fillWorker(-1);
+        replayDepth = 0;
+        liftedIndex = -1;
+        lastCmpA = lastCmpB = -1;
+        replayWorker = -1;
+        cursor = 0;
+    }
+
+    /** Stops this run's replay at its next op, for good. */
+    void cancel() {
+        cancelled = true;
+        nodes.clear(); // also releases a replay waiting for its nodes to settle
+    }
+
+    boolean isCancelled() { return cancelled; }
+
+    /** Index of the next op the replay will apply. */
+    long cursor() { return cursor; }
+
+    /** Replay wall time not spent blocked, up to {@code now} or the end of the replay. */
+    long busyNanos(long now) {
+        long start = startedNanos;
+        if(start == 0) return 0;
+        long end = finishedNanos != 0 ? finishedNanos : now;
+        return Math.max(0, end - start - blockedNanos.sum());
+    }
+
+    // --- REPLAY ---
+
+    void replay(OpSource ops) {
+        begin(false);
+        try {
+            for(; cursor<ops.size(); cursor++) {
+                awaitOp();
+                if(stopped()) return;
+                apply(ops.get(cursor));
+            }
+            releaseCompare();
+        } finally {
+            finishedNanos = System.nanoTime();
+        }
+    }
+
+    /** Starts a batch replay driven by {@link #applyBatch}, typically once per animation frame. */
+    void beginBatch() {
+        begin(true);
+        lastBatchEnd = startedNanos;
+    }
+
+    /**
+     * Applies the next {@code k} ops at once, without sleeping or waiting for
+     * the nodes to settle; they glide (or snap) to their final slots when the
+     * caller next steps the physics. Time between batches counts as blocked.
+     * Returns false once the stream is done or the run was stopped.
+     */
+    boolean applyBatch(OpSource ops, int k) {
+        long now = System.nanoTime();
+        blockedNanos.add(now - lastBatchEnd);
+        if(!cancelled && control.running()) {
+            long c = cursor, end = Math.min(ops.size(), c + k);
+            for(; c < end; c++) apply(ops.get(c));
+            cursor = c;
+        }
+        lastBatchEnd = System.nanoTime();
+        if(cursor < ops.size() && !cancelled && control.running()) return true;
+
+        releaseCompare();
+        batch = false;
+        finishedNanos = lastBatchEnd;
+        return false;
+    }
+
+    private void begin(boolean batch) {
+        this.batch = batch;
+        startedNanos = System.nanoTime();
+        finishedNanos = 0;
+    }
+
+    /**
+     * Applies ops up to (not including) {@code target} straight away, as in
+     * batch mode but whether or not the run is live. Only for runs no replay
+     * thread is driving: a {@link Timeline}'s own run, or a stopped one.
+     */
+    void advance(OpSource ops, long target) {
+        boolean was = batch;
+        batch = true;
+        long c = cursor;
+        for(; c < target; c++) apply(ops.get(c));
+        cursor = c;
+        if(c == ops.size()) releaseCompare();
+        batch = was;
+    }
+
+    // --- SNAPSHOTS ---
+
+    /**
+     * Everything a replay has built up by op {@code at}: the slots, the
+     * pointers, the counters and the replay's own bookkeeping.
+     */
+    record Snapshot(long at, int[] values, byte[] states, byte[] workers,
+                    int depth, int lifted, int cmpA, int cmpB, int worker,
+                    int ptrA, int ptrB, int ptrPivot, String labelA, String labelB,
+                    long comparisons, long swaps) {
+
+        /** Heap bytes held per slot. */
+        static final int BYTES_PER_SLOT = 4 + 1 + 1;
+    }
+
+    Snapshot snapshot() {
+        return new Snapshot(cursor, nodes.values(), nodes.states(), nodes.workers(),
+                replayDepth, liftedIndex, lastCmpA, lastCmpB, replayWorker,
+                pointers.a, pointers.b, pointers.pivot, pointers.aLabel, pointers.bLabel,
+                comparisons.sum(), swaps.sum());
+    }
+
+    /**
+     * Puts the run back to a snapshot taken from a replay of the same input.
+     * Nodes keep their slots' targets; only a lifted pivot is raised again.
+     */
+    void restore(Snapshot s) {
+        nodes.restore(s.values(), s.states(), s.workers());
+        replayDepth = s.depth();
+        liftedIndex = s.lifted();
+        if(liftedIndex >= 0) nodes.setTargetY(liftedIndex, nodes.targetY(liftedIndex) - 50);
+        lastCmpA = s.cmpA();
+        lastCmpB = s.cmpB();
+        replayWorker = s.worker();
+        pointers.set(SortOps.PTR_A, s.labelA(), s.ptrA());
+        pointers.set(SortOps.PTR_B, s.labelB(), s.ptrB());
+        pointers.set(SortOps.PTR_PIVOT, "", s.ptrPivot());
+        comparisons.reset();
+        comparisons.add(s.comparisons());
+        swaps.reset();
+        swaps.add(s.swaps());
+        cursor = s.at();
+    }
+
+    private void apply(long op) {
+        int a = SortOps.a(op);
+        int b = SortOps.b(op);
+        switch(SortOps.type(op)) {
+            case SortOps.COMPARE -> {
+                releaseCompare();
+                comparisons.increment();
+                tagWorker(a);
+                tagWorker(b);
+                highlightCompare(a);
+                highlightCompare(b);
+                lastCmpA = a; lastCmpB = b;
+                pace();
+            }
+            case SortOps.SWAP -> {
+                releaseCompare();
+                tagWorker(a);
+                tagWorker(b);
+                swap(a, b);
+            }
+            case SortOps.WRITE -> {
+                nodes.setValue(a, b);
+                nodes.setState(a, SortOps.SORTED);
+                tagWorker(a);
+                swaps.increment();
+            }
+            case SortOps.POINTER -> pointers.set(SortOps.pointerSlot(op), SortOps.LABELS[SortOps.pointerLabel(op)], b);
+            case SortOps.MARK -> markNode(a, (byte) b);
+            case SortOps.ENTER -> enterLevel(a, b);
+            case SortOps.LEAVE -> leaveLevel(a, b);
+            case SortOps.WORKER -> replayWorker = a;
+            case SortOps.BUCKET -> {
+                // Coloured like a worker, so a distribution pass shows up as bands
+                releaseCompare();
+                nodes.setState(a, SortOps.DEFAULT);
+                if(nodes.worker(a) != (b & 0x7F)) nodes.setWorker(a, b & 0x7F);
+                pace();
+            }
+        }
+    }
+
+    /** The per-step delay, spent on the reads that drive the animation (compares and bucket reads). */
+    private void pace() {
+        if(batch) return;
+        long t0 = System.nanoTime();
+        sleep(control.delayMs());
+        blockedNanos.add(System.nanoTime() - t0);
+    }
+
+    /** Colors the slot by the worker that is processing it (parallel runs only). */
+    private void tagWorker(int i) {
+        if(replayWorker >= 0 && nodes.worker(i) != replayWorker) nodes.setWorker(i, replayWorker);
+    }
+
+    private void highlightCompare(int i) {
+        if(nodes.state(i) != SortOps.PIVOT) nodes.setState(i, SortOps.COMPARING);
+    }
+
+    private void releaseCompare() {
+        if(lastCmpA >= 0 && nodes.state(lastCmpA) == SortOps.COMPARING) nodes.setState(lastCmpA, SortOps.DEFAULT);
+        if(lastCmpB >= 0 && nodes.state(lastCmpB) == SortOps.COMPARING) nodes.setState(lastCmpB, SortOps.DEFAULT);
+        lastCmpA = lastCmpB = -1;
+    }
+
+    private void markNode(int i, byte state) {
+        if(state == SortOps.PIVOT) {
+            nodes.setState(i, SortOps.PIVOT);
+            if(liftedIndex < 0) {
+                liftedIndex = i;
+                nodes.setTargetY(i, nodes.targetY(i) - 50);
+                waitForPhysics();
+            }
+            return;
+        }
+        nodes.setState(i, state == SortOps.SORTED ? SortOps.SORTED : SortOps.DEFAULT);
+        if(i == liftedIndex) {
+            nodes.setTargetY(i, nodes.targetY(i) + 50);
+            liftedIndex = -1;
+            waitForPhysics();
+        }
+    }
+
+    private double levelY(int depth) {
+        return (control.viewMode() == ViewMode.NODES) ? 150 + (depth * 130) : 250 + (depth * 130);
+    }
+
+    private void enterLevel(int l, int r) {
+        replayDepth++;
+        if(!levels || batch) {
+            for(int i=l; i<=r; i++) tagWorker(i);
+            return;
+        }
+        if(control.viewMode() == ViewMode.BARS && replayDepth == 1) {
+            nodes.fillTargetY(250);
+            waitForPhysics();
+        }
+
+        int mid = (l + r) >>> 1;
+        double y = levelY(replayDepth);
+        for(int i=l; i<=r; i++) {
+            nodes.setTarget(i, nodes.targetX(i) + (i <= mid ? -15 : 15), y);
+            tagWorker(i);
+        }
+        waitForPhysics();
+    }
+
+    private void leaveLevel(int l, int r) {
+        if(!levels || batch) {
+            replayDepth--;
+            return;
+        }
+        double minX = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE;
+        for(int k=l; k<=r; k++) {
+            minX = Math.min(minX, nodes.targetX(k));
+            maxX = Math.max(maxX, nodes.targetX(k));
+        }
+        double step = (maxX - minX) / (Math.max(1, r - l));
+        double y = levelY(replayDepth - 1);
+
+        for(int k=l; k<=r; k++) {
+            nodes.setTarget(k, minX + ((k - l) * step), y);
+        }
+        waitForPhysics();
+        pointers.clear();
+        replayDepth--;
+    }
+
+    private void swap(int i, int j) {
+        if(i == j) return;
+        swaps.increment();
+        nodes.swap(i, j);
+
+        // The lifted pivot/key travels with its node
+        if(liftedIndex == i) liftedIndex = j;
+        else if(liftedIndex == j) liftedIndex = i;
+        waitForPhysics();
+    }
+
+    void waitForPhysics() {
+        if(batch) return;
+        long t0 = System.nanoTime();
+        control.checkPaused();
+        try {
+            nodes.awaitSettled();
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        control.checkPaused();
+        blockedNanos.add(System.nanoTime() - t0);
+    }
+
+    private void awaitOp() {
+        long t0 = System.nanoTime();
+        control.awaitOp();
+        blockedNanos.add(System.nanoTime() - t0);
+    }
+
+    private boolean stopped() {
+        return cancelled || !control.running() || Thread.currentThread().isInterrupted();
+    }
+
+    /** Sleeps, or returns early with the interrupt status kept if the run is stopped meanwhile. */
+    static void sleep(int ms) {
+        try {
+            Thread.sleep(ms);
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package neonsort;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Dedicated threads for sort runs, and a handle to stop each one. A task
+ * records and replays one run; stopping it interrupts its thread, which
+ * ends a replay within one op even while it sleeps between steps, waits for
+ * nodes to glide or sits paused. A task stopped before it got a thread
+ * skips its body but still runs its cleanup, so the window always hears
+ * that a run is over.
+ *
+ * A serial instance runs its tasks one after the other on a single thread:
+ * a run submitted while the last one is still winding down waits for it,
+ * so two sorters never drive the same nodes. The threads are daemons with
+ * a deep stack, since recording a recursive sort on its worst input
+ * recurses as deep as the array is long.
+ *
+ * A task can also be split in two: only the recording runs on a deep-stack
+ * thread, and the replay, which mostly sleeps and parks, moves on to a
+ * virtual thread ({@link VirtualThreads}), so dozens of race lanes cost a
+ * handful of platform threads. One {@link Task} stops either half.
+ */
+final class SortTasks {
+
+    private static final long STACK_BYTES = 256L << 20;
+
+    private final ExecutorService pool;
+
+    private SortTasks(ExecutorService pool) {
+        this.pool = pool;
+    }
+
+    /** One task at a time, in submission order. */
+    static SortTasks serial(String name) {
+        return new SortTasks(Executors.newSingleThreadExecutor(threads(name)));
+    }
+
+    /** As many tasks at once as are submitted, for recording race lanes. */
+    static SortTasks pooled(String name) {
+        return new SortTasks(Executors.newCachedThreadPool(threads(name)));
+    }
+
+    private static ThreadFactory threads(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(null, r, name + "-" + count.incrementAndGet(), STACK_BYTES);
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    /** Queues {@code body}, then {@code cleanup} on the same thread whether the body ran, failed or was stopped. */
+    Task submit(Runnable body, Runnable cleanup) {
+        Task task = new Task();
+        pool.execute(() -> {
+            try {
+                task.runPart(body);
+            } finally {
+                cleanup.run();
+            }
+        });
+        return task;
+    }
+
+    /**
+     * Queues {@code record}, then hands its result to {@code replay} on a
+     * virtual thread named {@code name}. A null result, or a stop during the
+     * recording, skips the replay. {@code cleanup} runs once either way, on
+     * whichever thread finished last.
+     */
+    <T> Task submit(String name, Supplier<T> record, Consumer<T> replay, Runnable cleanup) {
+        Task task = new Task();
+        pool.execute(() -> {
+            boolean handedOff = false;
+            try {
+                List<T> result = new ArrayList<>(1);
+                task.runPart(() -> result.add(record.get()));
+                if(result.isEmpty() || result.get(0) == null || task.isStopped()) return;
+                T recorded = result.get(0);
+                VirtualThreads.start(name, () -> {
+                    try {
+                        task.runPart(() -> replay.accept(recorded));
+                    } finally {
+                        cleanup.run();
+                    }
+                });
+                handedOff = true;
+            } finally {
+                if(!handedOff) cleanup.run();
+            }
+        });
+        return task;
+    }
+
+    /** One submitted run. */
+    static final class Task {
+        private Thread thread; // while a part runs; guarded by this
+        private boolean stopped;
+
+        private Task() {}
+
+        /** Interrupts the part that is running, or keeps the next one from starting. */
+        synchronized void stop() {
+            stopped = true;
+            if(thread != null) thread.interrupt();
+        }
+
+        synchronized boolean isStopped() { return stopped; }
+
+        /** Runs {@code part} on this thread unless stopped, where {@link #stop} can interrupt it. */
+        private void runPart(Runnable part) {
+            synchronized(this) {
+                if(stopped) return;
+                thread = Thread.currentThread();
+            }
+            try {
+                part.run();
+            } finally {
+                synchronized(this) {
+                    thread = null;
+                    Thread.interrupted(); // a stop that came late must not reach the cleanup or the next task
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package neonsort;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Checkpoints over one recorded run, so the replay can be put back to any
+ * op. A background pass replays the run on a shadow {@link SortRun} and
+ * keeps a {@link SortRun.Snapshot} of the whole array every
+ * {@link #interval()} ops; the ops in between are the recording itself
+ * (an {@link OpBuffer} or a mapped trace). A seek restores the last
+ * snapshot at or before the target and applies the fewer than K ops after
+ * it, so it costs O(n + K) however long the run is.
+ *
+ * K comes from a memory budget: the snapshots of a run together stay under
+ * {@link #BUDGET_BYTES}, so K grows with the array size and the run length
+ * and memory stays bounded even for hundreds of millions of ops. It never
+ * drops below {@link #MIN_INTERVAL}, where restoring a snapshot would cost
+ * more than replaying. An array too large for even two snapshots in the
+ * budget keeps only the one at op 0.
+ */
+final class Timeline implements Closeable {
+
+    /** Heap the snapshots may take; {@code -Dneonsort.timeline.mb} overrides the 256 MB default. */
+    static final long BUDGET_BYTES = Long.getLong("neonsort.timeline.mb", 256) << 20;
+    static final int MIN_INTERVAL = 1024;
+    private static final int SNAPSHOT_OVERHEAD = 128; // headers of the record and its arrays
+
+    private final String algorithm;
+    private final OpSource ops;
+    private final long interval;
+    private final SortRun.Snapshot[] points;
+    private int[] input; // until the build has started from it
+    private volatile int built;
+    private volatile boolean closed;
+
+    Timeline(String algorithm, int[] input, OpSource ops, long budgetBytes) {
+        this.algorithm = algorithm;
+        this.input = input;
+        this.ops = ops;
+        long perSnapshot = (long) input.length * SortRun.Snapshot.BYTES_PER_SLOT + SNAPSHOT_OVERHEAD;
+        long most = Math.max(1, budgetBytes / perSnapshot);
+        // Snapshots at 0, K, 2K, ... up to the end: size / K + 1 of them, at most `most`
+        this.interval = Math.max(MIN_INTERVAL, ops.size() / most + 1);
+        this.points = new SortRun.Snapshot[(int) (ops.size() / interval + 1)];
+    }
+
+    String algorithm() { return algorithm; }
+    OpSource ops() { return ops; }
+    long size() { return ops.size(); }
+    long interval() { return interval; }
+    boolean isBuilt() { return built == points.length; }
+
+    /** Furthest op a seek can reach in bounded time so far; the whole run once built. */
+    long reach() {
+        int b = built;
+        if(b == points.length) return ops.size();
+        return b == 0 ? 0 : (b - 1) * interval;
+    }
+
+    /**
+     * Replays the run on a shadow copy of the input and takes the snapshots.
+     * Runs on its own thread; seeks can use each snapshot as soon as it is
+     * taken. Returns early once the timeline is closed.
+     */
+    void build() {
+        // Only ever advanced in batch mode, which never asks its control anything
+        SortRun shadow = new SortRun(algorithm, null, false);
+        shadow.nodes.addAll(input, 0, 0);
+        input = null;
+        for(int k = 0; k < points.length && !closed; k++) {
+            shadow.advance(ops, k * interval);
+            points[k] = shadow.snapshot();
+            built = k + 1;
+        }
+    }
+
+    /**
+     * Puts {@code run}, which nothing else is replaying, at op {@code target}
+     * (clamped to {@link #reach}) and returns the op it now stands at.
+     */
+    long seek(SortRun run, long target) {
+        int b = built;
+        if(b == 0) return run.cursor();
+        long to = Math.max(0, Math.min(target, reach()));
+        run.restore(points[(int) Math.min(to / interval, b - 1)]);
+        run.advance(ops, to);
+        return to;
+    }
+
+    /** Stops the build and releases the recording if it is a mapped trace. */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        if(ops instanceof Closeable c) c.close();
+    }
+}
@@ -0,0 +1,97 @@
+package neonsort;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Opens a trace written by {@link TraceWriter}. The event region is mapped
+ * read-only in 1 GB segments, so opening a multi-gigabyte trace costs no heap
+ * and {@link #get(long)} is a constant-time lookup.
+ */
+final class TraceReader implements OpSource, Closeable {
+
+    private static final int SEGMENT_SHIFT = 27; // 2^27 events = 1 GB per mapping
+    private static final long SEGMENT_EVENTS = 1L << SEGMENT_SHIFT;
+    private static final long SEGMENT_MASK = SEGMENT_EVENTS - 1;
+
+    private final FileChannel channel;
+    private final String algorithm;
+    private final int inputSize;
+    private final long seed;
+    private final long events;
+    private final long eventsOffset;
+    private final MappedByteBuffer[] segments;
+
+    TraceReader(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            if(channel.size() < TraceWriter.HEADER_BYTES) throw new IOException("Not a trace file: " + file);
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, TraceWriter.HEADER_BYTES);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+
+            if(header.getLong(0) != TraceWriter.MAGIC) throw new IOException("Not a trace file: " + file);
+            int version = header.getInt(8);
+            if(version != TraceWriter.VERSION) throw new IOException("Unsupported trace version " + version);
+
+            inputSize = header.getInt(12);
+            seed = header.getLong(16);
+            events = header.getLong(TraceWriter.COUNT_OFFSET);
+
+            byte[] name = new byte[TraceWriter.NAME_BYTES];
+            header.get(32, name);
+            int len = 0;
+            while(len < name.length && name[len] != 0) len++;
+            algorithm = new String(name, 0, len, StandardCharsets.UTF_8);
+
+            eventsOffset = TraceWriter.eventsOffset(inputSize);
+            if(channel.size() < eventsOffset + events * Long.BYTES) throw new IOException("Truncated trace: " + file);
+
+            int count = (int) ((events + SEGMENT_EVENTS - 1) >>> SEGMENT_SHIFT);
+            segments = new MappedByteBuffer[count];
+            for(int s = 0; s < count; s++) {
+                long first = (long) s << SEGMENT_SHIFT;
+                long len64 = Math.min(SEGMENT_EVENTS, events - first) * Long.BYTES;
+                segments[s] = channel.map(FileChannel.MapMode.READ_ONLY, eventsOffset + first * Long.BYTES, len64);
+                segments[s].order(ByteOrder.LITTLE_ENDIAN);
+            }
+        } catch(IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    String algorithm() { return algorithm; }
+    int inputSize() { return inputSize; }
+    long seed() { return seed; }
+
+    /** The array the recorded run started from. */
+    int[] input() throws IOException {
+        int[] values = new int[inputSize];
+        if(inputSize == 0) return values;
+        IntBuffer ints = channel.map(FileChannel.MapMode.READ_ONLY, TraceWriter.HEADER_BYTES, (long) inputSize * Integer.BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        ints.get(values);
+        return values;
+    }
+
+    @Override
+    public long size() { return events; }
+
+    @Override
+    public long get(long index) {
+        if(index < 0 || index >= events) throw new IndexOutOfBoundsException("Event " + index + " of " + events);
+        return segments[(int) (index >>> SEGMENT_SHIFT)].getLong((int) (index & SEGMENT_MASK) << 3);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
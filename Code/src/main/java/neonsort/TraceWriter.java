@@ -0,0 +1,117 @@
+package neonsort;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Streams a sort run to disk as a binary trace.
+ *
+ * File layout (little-endian):
+ *   0   long   magic "NSTRACE1"
+ *   8   int    format version
+ *   12  int    input size n
+ *   16  long   seed the input was generated from (0 = manual input)
+ *   24  long   number of events (filled in on close)
+ *   32  32B    algorithm name, UTF-8, zero padded
+ *   64  n*int  initial input values, padded to a multiple of 8 bytes
+ *   ..  long[] events, packed as described in {@link SortOps}
+ *
+ * Events are fixed-width, so event k always lives at
+ * {@code eventsOffset(n) + k * 8} and a reader can seek to it directly.
+ */
+final class TraceWriter implements OpSink, Closeable {
+
+    static final long MAGIC = 0x314543415254534EL; // "NSTRACE1" read little-endian
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 64;
+    static final int NAME_BYTES = 32;
+    static final int COUNT_OFFSET = 24;
+
+    private static final int BUFFER_BYTES = 1 << 20;
+
+    private final FileChannel channel;
+    private final ByteBuffer buf;
+    private long events;
+
+    TraceWriter(Path file, String algorithm, int[] input, long seed) throws IOException {
+        // Checked before the file is opened, so a bad name leaves an existing trace alone
+        byte[] name = algorithm.getBytes(StandardCharsets.UTF_8);
+        if(name.length > NAME_BYTES) throw new IllegalArgumentException("Algorithm name too long: " + algorithm);
+
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        buf = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            writeHeader(name, input, seed);
+        } catch(IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void writeHeader(byte[] name, int[] input, long seed) throws IOException {
+        buf.putLong(MAGIC);
+        buf.putInt(VERSION);
+        buf.putInt(input.length);
+        buf.putLong(seed);
+        buf.putLong(0);
+        buf.put(name);
+        buf.position(HEADER_BYTES);
+
+        for(int v : input) {
+            if(!buf.hasRemaining()) drain();
+            buf.putInt(v);
+        }
+        if((input.length & 1) == 1) {
+            if(!buf.hasRemaining()) drain();
+            buf.putInt(0);
+        }
+    }
+
+    static long eventsOffset(int n) {
+        return HEADER_BYTES + (((long) n + 1) & ~1L) * Integer.BYTES;
+    }
+
+    @Override
+    public void accept(long op) {
+        if(buf.remaining() < Long.BYTES) {
+            try { drain(); } catch(IOException e) { throw new UncheckedIOException(e); }
+        }
+        buf.putLong(op);
+        events++;
+    }
+
+    long events() { return events; }
+
+    private void drain() throws IOException {
+        buf.flip();
+        while(buf.hasRemaining()) channel.write(buf);
+        buf.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            drain();
+            ByteBuffer count = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            count.putLong(0, events);
+            channel.write(count, COUNT_OFFSET);
+        } finally {
+            channel.close();
+        }
+    }
+
+    /** Writes an already recorded run in one go. */
+    static void save(Path file, String algorithm, int[] input, long seed, OpSource ops) throws IOException {
+        try(TraceWriter w = new TraceWriter(file, algorithm, input, seed)) {
+            for(long k = 0; k < ops.size(); k++) w.accept(ops.get(k));
+        }
+    }
+}
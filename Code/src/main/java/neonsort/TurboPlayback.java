@@ -0,0 +1,76 @@
+package neonsort;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Turbo playback of one recorded run. Instead of a replay thread sleeping
+ * between ops, the animation timer applies K ops per frame on the EDT, and
+ * K adapts so that applying plus painting stays inside a 60 FPS frame: it
+ * grows by a quarter while frames are cheap and backs off when one runs
+ * over, never beyond the cap the speed slider sets. The ops are still
+ * applied one by one in recorded order, only the node movement is coalesced
+ * to once per frame. While paused, {@link #step} applies a single op.
+ */
+final class TurboPlayback {
+
+    static final long FRAME_BUDGET_NANOS = 1_000_000_000L / 60;
+    static final int MAX_K = 1 << 22;
+    static final int SNAP_K = 8; // above this many ops per frame nodes snap instead of gliding
+
+    private final SortRun run;
+    private final OpSource ops;
+    private final CountDownLatch done = new CountDownLatch(1);
+    private double k = 1;
+    private volatile boolean cancelled;
+
+    /** Call on the thread that recorded the ops; {@link #tick} then runs on the EDT. */
+    TurboPlayback(SortRun run, OpSource ops) {
+        this.run = run;
+        this.ops = ops;
+        run.beginBatch();
+    }
+
+    SortRun run() { return run; }
+    int opsPerFrame() { return (int) k; }
+    boolean snaps() { return k > SNAP_K; }
+
+    /**
+     * Applies one frame's batch. {@code paintNanos} is what the last frame
+     * cost to paint, {@code share} how many playbacks split the frame and
+     * {@code cap} the most ops the user wants per frame.
+     * Returns false once the run is finished.
+     */
+    boolean tick(long paintNanos, int share, int cap) {
+        if(cancelled) return finish(false);
+        k = Math.min(k, Math.max(1, cap));
+        long t0 = System.nanoTime();
+        boolean more = run.applyBatch(ops, (int) k);
+        long frame = System.nanoTime() - t0 + paintNanos / Math.max(1, share);
+        long budget = FRAME_BUDGET_NANOS / Math.max(1, share);
+
+        if(frame < budget * 3 / 4) k = Math.min(Math.min(MAX_K, cap), k * 1.25 + 1);
+        else if(frame > budget) k = Math.max(1, k * 0.7);
+
+        return finish(more);
+    }
+
+    /** Applies exactly one op. Returns false once the run is finished. */
+    boolean step() {
+        return finish(!cancelled && run.applyBatch(ops, 1));
+    }
+
+    /** Stops applying ops; the playback is dropped at the next tick. Any thread. */
+    void cancel() {
+        cancelled = true;
+    }
+
+    private boolean finish(boolean more) {
+        if(!more) done.countDown();
+        return more;
+    }
+
+    /** Blocks the run's thread until the EDT has applied the last op (or the run was stopped). */
+    void awaitDone() throws InterruptedException {
+        done.await();
+    }
+}
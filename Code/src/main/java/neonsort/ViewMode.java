@@ -0,0 +1,3 @@
+package neonsort;
+
+enum ViewMode { NODES, BARS }
@@ -0,0 +1,52 @@
+package neonsort;
+
+import java.lang.reflect.Method;
+
+/**
+ * Starts virtual threads where the running JDK has them (21+) and falls
+ * back to daemon platform threads otherwise. The build targets release 17,
+ * so {@code Thread.ofVirtual()} is looked up reflectively once.
+ */
+final class VirtualThreads {
+
+    private static final Method OF_VIRTUAL;
+    private static final Method NAME;
+    private static final Method START;
+
+    static {
+        Method ofVirtual = null, name = null, start = null;
+        try {
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            name = builder.getMethod("name", String.class);
+            start = builder.getMethod("start", Runnable.class);
+            ofVirtual.invoke(null); // preview-only JDKs throw here
+        } catch(ReflectiveOperationException | RuntimeException e) {
+            ofVirtual = null;
+        }
+        OF_VIRTUAL = ofVirtual;
+        NAME = name;
+        START = start;
+    }
+
+    private VirtualThreads() {}
+
+    static boolean available() {
+        return OF_VIRTUAL != null;
+    }
+
+    static Thread start(String name, Runnable task) {
+        if(OF_VIRTUAL != null) {
+            try {
+                Object builder = NAME.invoke(OF_VIRTUAL.invoke(null), name);
+                return (Thread) START.invoke(builder, task);
+            } catch(ReflectiveOperationException e) {
+                // fall through to a platform thread
+            }
+        }
+        Thread t = new Thread(task, name);
+        t.setDaemon(true);
+        t.start();
+        return t;
+    }
+}
@@ -0,0 +1,72 @@
+package neonsort;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A steady-state frame draws from {@link RenderCache} and the painter's own
+ * buffers only, so painting a running sort should allocate next to nothing.
+ * Each frame swaps two nodes, steps the physics, asks for the dirty region
+ * and paints the whole frame, on the calling thread, whose allocation the
+ * JVM counts exactly.
+ */
+class CanvasPainterAllocationTest {
+
+    private static final int WIDTH = 1300;
+    private static final int HEIGHT = 900;
+    private static final int WARMUP_FRAMES = 3000; // the raster path only stops allocating once compiled
+    private static final int FRAMES = 300;
+    private static final long MAX_BYTES_PER_FRAME = 256;
+
+    @ParameterizedTest(name = "{0}, {1} nodes")
+    @CsvSource({"NODES, 100", "BARS, 100", "BARS, 2000"})
+    void steadyStateFramesBarelyAllocate(ViewMode mode, int count) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        NodeStore nodes = new NodeStore();
+        nodes.addAll(SortEngine.randomInput(count, 42), WIDTH / 2.0, HEIGHT / 2.0);
+        double spacing = (double) (WIDTH - 120) / count;
+        double y = mode == ViewMode.NODES ? 150 : 600;
+        for(int i = 0; i < count; i++) nodes.setTarget(i, 60 + spacing / 2 + i * spacing, y);
+        Pointers pointers = new Pointers();
+        pointers.set(SortOps.PTR_A, "i", count / 3);
+        pointers.set(SortOps.PTR_B, "j", count / 2);
+
+        CanvasPainter painter = new CanvasPainter();
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        Rectangle dirty = new Rectangle();
+        // Swaps picked up front, so the loop itself allocates nothing
+        int[] swaps = SortEngine.randomInput(2 * (WARMUP_FRAMES + FRAMES), 7);
+        try {
+            for(int f = 0; f < WARMUP_FRAMES; f++) frame(painter, g, nodes, pointers, mode, dirty, swaps, f);
+
+            long before = threads.getCurrentThreadAllocatedBytes();
+            for(int f = WARMUP_FRAMES; f < WARMUP_FRAMES + FRAMES; f++) frame(painter, g, nodes, pointers, mode, dirty, swaps, f);
+            long perFrame = (threads.getCurrentThreadAllocatedBytes() - before) / FRAMES;
+
+            assertTrue(perFrame <= MAX_BYTES_PER_FRAME,
+                    mode + " with " + count + " nodes allocated " + perFrame + " bytes per frame");
+        } finally {
+            g.dispose();
+        }
+    }
+
+    private static void frame(CanvasPainter painter, Graphics2D g, NodeStore nodes, Pointers pointers, ViewMode mode,
+                              Rectangle dirty, int[] swaps, int f) {
+        int n = nodes.size();
+        nodes.swap(swaps[2 * f] % n, swaps[2 * f + 1] * 31 % n);
+        nodes.update(0.15);
+        painter.dirtyRegion(WIDTH, HEIGHT, nodes, pointers, mode, 99,
+                CanvasPainter.RASTER_BOTTOM, CanvasPainter.BAR_AREA_HEIGHT, dirty);
+        painter.paint(g, WIDTH, HEIGHT, nodes, pointers, mode, 99);
+    }
+}
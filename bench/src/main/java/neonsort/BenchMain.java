@@ -0,0 +1,124 @@
+package neonsort;
+
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatFactory;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs the whole benchmark matrix and writes every result into one JMH JSON
+ * file (default {@code jmh-result.json}) that can be diffed across releases.
+ *
+ * Each algorithm/input pair only runs the sizes it can finish in reasonable
+ * time: 1k..10M where the algorithm is near-linear or n log n on that
+ * input, 1k..10k where it is quadratic. The fork/join variants are also
+ * printed as a speedup over their sequential versions.
+ *
+ * Usage: java -jar bench/target/benchmarks.jar [result.json] [--quick]
+ * Plain JMH still works too: java -cp benchmarks.jar org.openjdk.jmh.Main -rf json
+ */
+public final class BenchMain {
+
+    private static final int[] SIZES = {1_000, 10_000, 100_000, 1_000_000, 10_000_000};
+    private static final int QUADRATIC_LIMIT = 10_000;
+
+    private BenchMain() {}
+
+    public static void main(String[] args) throws RunnerException {
+        String out = "jmh-result.json";
+        boolean quick = false;
+        for(String a : args) {
+            if(a.equals("--quick")) quick = true;
+            else out = a;
+        }
+
+        List<RunResult> results = new ArrayList<>();
+        for(String algo : SortAlgorithms.names()) {
+            for(InputDistribution d : InputDistribution.values()) {
+                List<String> sizes = new ArrayList<>();
+                for(int n : SIZES) {
+                    if(n <= maxSize(algo, d)) sizes.add(String.valueOf(n));
+                }
+                ChainedOptionsBuilder opts = base(quick)
+                        .include(SortBenchmark.class.getName() + ".sort")
+                        .param("algorithm", algo)
+                        .param("distribution", d.name())
+                        .param("size", sizes.toArray(new String[0]));
+                results.addAll(run(opts));
+            }
+        }
+        printSpeedups(results);
+        results.addAll(run(base(quick).include(CanvasPaintBenchmark.class.getName())));
+
+        File file = new File(out);
+        try(PrintStream ps = new PrintStream(file)) {
+            ResultFormatFactory.getInstance(ResultFormatType.JSON, ps).writeOut(results);
+        } catch(Exception e) {
+            throw new RunnerException("Could not write " + file, e);
+        }
+        System.out.println("Results written to " + file.getAbsolutePath());
+    }
+
+    /** Parallel time against the sequential time of the same algorithm, input and size. */
+    private static void printSpeedups(List<RunResult> results) {
+        Map<String, Double> sequential = new HashMap<>();
+        for(RunResult r : results) {
+            String algo = r.getParams().getParam("algorithm");
+            if(SortAlgorithms.get(algo).sequential() == null) sequential.put(key(algo, r), r.getPrimaryResult().getScore());
+        }
+        System.out.println();
+        System.out.println("Fork/join speedup on " + Runtime.getRuntime().availableProcessors() + " cores:");
+        for(RunResult r : results) {
+            String algo = r.getParams().getParam("algorithm");
+            String base = SortAlgorithms.get(algo).sequential();
+            if(base == null) continue;
+            Double seq = sequential.get(key(base, r));
+            if(seq == null) continue;
+            double par = r.getPrimaryResult().getScore();
+            System.out.printf("  %-20s %-14s %,11d  %10.3f ms vs %10.3f ms  %6.2fx%n", algo,
+                    r.getParams().getParam("distribution"), Integer.parseInt(r.getParams().getParam("size")),
+                    par, seq, seq / par);
+        }
+    }
+
+    private static String key(String algo, RunResult r) {
+        return algo + '/' + r.getParams().getParam("distribution") + '/' + r.getParams().getParam("size");
+    }
+
+    /** Largest input that finishes in reasonable time for this algorithm and input shape. */
+    static int maxSize(String algo, InputDistribution d) {
+        return switch(algo) {
+            case "Merge Sort", "Ping-Pong Merge Sort", "Natural Merge Sort", "Parallel Merge Sort" -> Integer.MAX_VALUE;
+            case "3-Way Quick Sort (median of 3)", "3-Way Quick Sort (ninther)", "3-Way Quick Sort (random)", "Parallel Quick Sort" -> Integer.MAX_VALUE;
+            // Linear in n whatever the order; bucket sort only degrades on heavily skewed values
+            case "Counting Sort", "LSD Radix Sort", "MSD Radix Sort", "Bucket Sort" -> Integer.MAX_VALUE;
+            // Last-element pivot: sorted, reversed and duplicate-heavy input go quadratic
+            case "Quick Sort" -> d == InputDistribution.RANDOM ? Integer.MAX_VALUE : QUADRATIC_LIMIT;
+            // Both finish in one (or a few) passes when elements are already near their place
+            case "Insertion Sort", "Bubble Sort" ->
+                    (d == InputDistribution.SORTED || d == InputDistribution.NEARLY_SORTED) ? Integer.MAX_VALUE : QUADRATIC_LIMIT;
+            default -> QUADRATIC_LIMIT;
+        };
+    }
+
+    private static ChainedOptionsBuilder base(boolean quick) {
+        ChainedOptionsBuilder b = new OptionsBuilder().shouldFailOnError(false);
+        if(quick) b = b.warmupIterations(1).measurementIterations(2).forks(1);
+        return b;
+    }
+
+    private static Collection<RunResult> run(ChainedOptionsBuilder opts) throws RunnerException {
+        return new Runner(opts.build()).run();
+    }
+}
@@ -0,0 +1,98 @@
+package neonsort;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One canvas frame painted into an off-screen image, with two nodes swapped
+ * before each frame the way a running sort would: any two ({@code RANDOM},
+ * the original workload) or neighbours ({@code ADJACENT}, the smallest
+ * change). With {@code dirtyRegion} on, only the area the painter reports
+ * as changed is repainted, as the studio's timer does.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Djava.awt.headless=true"})
+public class CanvasPaintBenchmark {
+
+    private static final int WIDTH = 1300;
+    private static final int HEIGHT = 900;
+
+    @Param({"100", "1000", "10000", "100000"})
+    public int nodeCount;
+
+    @Param({"NODES", "BARS"})
+    public String viewMode;
+
+    @Param({"false", "true"})
+    public boolean dirtyRegion;
+
+    @Param({"RANDOM", "ADJACENT"})
+    public String swapPattern;
+
+    private final CanvasPainter painter = new CanvasPainter();
+    private final Pointers pointers = new Pointers();
+    private final Random random = new Random(7);
+    private NodeStore nodes;
+    private ViewMode mode;
+    private boolean adjacent;
+    private BufferedImage image;
+    private Graphics2D g;
+    private final Rectangle dirty = new Rectangle();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        mode = ViewMode.valueOf(viewMode);
+        adjacent = swapPattern.equals("ADJACENT");
+        nodes = new NodeStore();
+        nodes.addAll(SortEngine.randomInput(nodeCount, 42), WIDTH / 2.0, HEIGHT / 2.0);
+
+        // Same layout arrangeNodesLinearly() produces when everything fits the view
+        int margin = 60;
+        double spacing = (double) (WIDTH - margin * 2) / nodeCount;
+        double y = (mode == ViewMode.NODES) ? 150 : 600;
+        for(int i = 0; i < nodeCount; i++) nodes.setTarget(i, margin + spacing / 2 + i * spacing, y);
+        nodes.update(1.0);
+        nodes.update(1.0);
+
+        pointers.set(SortOps.PTR_A, "i", nodeCount / 3);
+        pointers.set(SortOps.PTR_B, "j", nodeCount / 2);
+
+        image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        g = image.createGraphics();
+        painter.paint(g, WIDTH, HEIGHT, nodes, pointers, mode, 99);
+        painter.dirtyRegion(WIDTH, HEIGHT, nodes, pointers, mode, 99,
+                CanvasPainter.RASTER_BOTTOM, CanvasPainter.BAR_AREA_HEIGHT, dirty);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        g.dispose();
+    }
+
+    @Benchmark
+    public BufferedImage paintFrame() {
+        if(adjacent) {
+            int i = random.nextInt(nodeCount - 1);
+            nodes.swap(i, i + 1);
+        } else {
+            nodes.swap(random.nextInt(nodeCount), random.nextInt(nodeCount));
+        }
+        nodes.update(1.0);
+        if(dirtyRegion) {
+            if(!painter.dirtyRegion(WIDTH, HEIGHT, nodes, pointers, mode, 99,
+                    CanvasPainter.RASTER_BOTTOM, CanvasPainter.BAR_AREA_HEIGHT, dirty)) return image;
+            g.setClip(dirty);
+        }
+        painter.paint(g, WIDTH, HEIGHT, nodes, pointers, mode, 99);
+        return image;
+    }
+}
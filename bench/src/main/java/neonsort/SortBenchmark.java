@@ -0,0 +1,46 @@
+package neonsort;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full-speed sorting on int[] through the headless engine, with the event
+ * stream discarded. {@link BenchMain} drives the full algorithm/size/input
+ * matrix; the defaults here are only a quick smoke run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xss256m", "-Xmx4g"})
+public class SortBenchmark {
+
+    @Param({"Merge Sort", "Ping-Pong Merge Sort", "Natural Merge Sort", "Quick Sort", "3-Way Quick Sort (median of 3)", "3-Way Quick Sort (ninther)",
+            "3-Way Quick Sort (random)", "Insertion Sort", "Selection Sort", "Bubble Sort",
+            "Parallel Merge Sort", "Parallel Quick Sort", "Counting Sort", "LSD Radix Sort", "MSD Radix Sort", "Bucket Sort"})
+    public String algorithm;
+
+    @Param({"RANDOM", "SORTED", "REVERSED", "FEW_UNIQUE", "NEARLY_SORTED"})
+    public String distribution;
+
+    @Param({"1000"})
+    public int size;
+
+    private int[] input;
+    private int[] work;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        input = InputDistribution.valueOf(distribution).generate(size, 42);
+        work = new int[size];
+    }
+
+    @Benchmark
+    public int[] sort() {
+        System.arraycopy(input, 0, work, 0, size);
+        SortEngine.sort(algorithm, work, OpSink.NONE);
+        return work;
+    }
+}